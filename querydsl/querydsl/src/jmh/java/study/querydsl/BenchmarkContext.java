@@ -0,0 +1,73 @@
+package study.querydsl;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 (인메모리 H2, SQL 로그 끔)
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String name, String... properties) {
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args(name, properties));
+    }
+
+    /**
+     * 내장 톰캣까지 띄운다. (server.port=0 이면 임의 포트, local.server.port 로 조회)
+     */
+    public static ConfigurableApplicationContext startWeb(String name, String... properties) {
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(args(name, properties));
+    }
+
+    /**
+     * application.yml 보다 우선하도록 커맨드라인 인자(--key=value)로 넘긴다.
+     */
+    private static String[] args(String name, String... properties) {
+        String[] defaults = {
+                "spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.show_sql=false",
+                "logging.level.org.hibernate.SQL=warn",
+                "snapshot.reload-interval-ms=3600000"
+        };
+        String[] merged = new String[defaults.length + properties.length];
+        System.arraycopy(defaults, 0, merged, 0, defaults.length);
+        System.arraycopy(properties, 0, merged, defaults.length, properties.length);
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = "--" + merged[i];
+        }
+        return merged;
+    }
+
+    public static TransactionTemplate tx(ConfigurableApplicationContext context) {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    /**
+     * member0 ~ member{count-1} 을 저장한다.
+     */
+    public static void seedMembers(ConfigurableApplicationContext context, int count) {
+        EntityManager em = context.getBean(EntityManager.class);
+        tx(context).executeWithoutResult(status -> {
+            for (int i = 0; i < count; i++) {
+                em.persist(new Member("member" + i, i % 100));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+    }
+}
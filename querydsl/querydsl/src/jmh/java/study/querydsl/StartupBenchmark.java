@@ -0,0 +1,66 @@
+package study.querydsl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 부팅 시작부터 첫 요청 응답까지 걸린 시간 (time-to-first-request)
+ * - before : ddl-auto: create
+ * - after  : Flyway (application.yml 기본값)
+ * 콜드 스타트를 재야 하므로 fork 마다 한 번만 띄운다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    @Param({"before", "after"})
+    String config;
+
+    @Benchmark
+    public int timeToFirstRequest() {
+        String[] properties = "before".equals(config)
+                ? new String[]{
+                        "server.port=0",
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create"}
+                : new String[]{"server.port=0"};
+        try (ConfigurableApplicationContext context = BenchmarkContext.startWeb("startup", properties)) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            return get("http://localhost:" + port + "/v2/members?page=0&size=10");
+        }
+    }
+
+    private static int get(String url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            try (InputStream in = connection.getInputStream()) {
+                while (in.read() != -1) {
+                    // 응답 본문까지 다 읽는다.
+                }
+            }
+            return connection.getResponseCode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
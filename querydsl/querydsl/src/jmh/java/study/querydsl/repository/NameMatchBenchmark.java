@@ -0,0 +1,100 @@
+package study.querydsl.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.BenchmarkContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원명 = 팀명 조인 (QuerydslBasicTest.theta_join, join_on_no_relation 모양)
+ * indexed=false 는 idx_team_name 을 지운 경우
+ * - thetaJoin : H2 가 팀을 먼저 읽고 idx_member_username 으로 찾을 수 있어 인덱스가 없어도 빠르다.
+ * - leftJoinOn : 회원이 바깥쪽이라 인덱스가 없으면 회원마다 팀 전체를 비교한다. (한 번에 수십 초)
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class NameMatchBenchmark {
+
+    @Param({"100000"})
+    int members;
+
+    @Param({"10000"})
+    int teams;
+
+    @Param({"true", "false"})
+    boolean indexed;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition condition = new MemberSearchCondition();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 인덱스가 없으면 쿼리 제한 시간(5초)을 넘으므로 끈다.
+        context = BenchmarkContext.start("name-match-" + indexed, "query-timeout.default-ms=0");
+        memberRepository = context.getBean(MemberRepository.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        List<Object[]> teamRows = new ArrayList<>(teams);
+        for (int i = 0; i < teams; i++) {
+            teamRows.add(new Object[]{i + 1L, "team" + i});
+        }
+        jdbc.batchUpdate("insert into team (team_id, name) values (?, ?)", teamRows);
+
+        // 절반은 팀 이름과 같은 회원명
+        List<Object[]> memberRows = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            memberRows.add(new Object[]{i + 1L, "team" + (i % (teams * 2)), i % 100, (long) (i % teams) + 1});
+        }
+        jdbc.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", memberRows);
+
+        if (!indexed) {
+            jdbc.execute("drop index idx_team_name");
+        }
+        jdbc.execute("analyze");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> thetaJoin() {
+        return memberRepository.searchByUsernameMatchingTeamName(nextCondition(), false);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> leftJoinOn() {
+        return memberRepository.searchByUsernameMatchingTeamName(nextCondition(), true);
+    }
+
+    /**
+     * H2 는 파라미터가 같으면 직전 결과를 재사용하므로 결과가 같은 조건(age >= 0, age >= -1)을 번갈아 쓴다.
+     */
+    private MemberSearchCondition nextCondition() {
+        condition.setAgeGoe(condition.getAgeGoe() == null || condition.getAgeGoe() == -1 ? 0 : -1);
+        return condition;
+    }
+}
@@ -0,0 +1,86 @@
+package study.querydsl.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.BenchmarkContext;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 소수의 회원(hotMembers)에 나이 증가가 몰릴 때의 처리량 비교
+ * - entityUpdate : 엔티티를 읽어서 setAge (갱신 손실 가능)
+ * - directUpdate : 요청마다 age = age + 1 UPDATE (행 잠금 대기)
+ * - batchedIncrement : MemberAgeUpdateService 에 모았다가 주기적으로 묶어서 UPDATE
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class MemberAgeUpdateBenchmark {
+
+    @Param({"100"})
+    int hotMembers;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate tx;
+    EntityManager em;
+    MemberRepository memberRepository;
+    MemberAgeUpdateService updateService;
+    long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("age-update", "member.age-update.flush-interval-ms=50");
+        BenchmarkContext.seedMembers(context, hotMembers);
+        tx = BenchmarkContext.tx(context);
+        em = context.getBean(EntityManager.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        updateService = context.getBean(MemberAgeUpdateService.class);
+        firstId = memberRepository.findAll().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        updateService.flush();
+        context.close();
+    }
+
+    private long randomMemberId() {
+        return firstId + ThreadLocalRandom.current().nextInt(hotMembers);
+    }
+
+    @Benchmark
+    public void entityUpdate() {
+        tx.executeWithoutResult(status -> {
+            Member findMember = em.find(Member.class, randomMemberId());
+            findMember.setAge(findMember.getAge() + 1);
+        });
+    }
+
+    @Benchmark
+    public void directUpdate() {
+        tx.executeWithoutResult(status ->
+                memberRepository.bulkAgeAddByIds(1, Collections.singletonList(randomMemberId())));
+    }
+
+    @Benchmark
+    public void batchedIncrement() {
+        updateService.increment(randomMemberId(), 1);
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.snapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.BenchmarkContext;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberRepository.findByUsername 과 off-heap 스냅샷 조회 비교
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemberLookupBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSnapshot snapshot;
+    long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("lookup");
+        BenchmarkContext.seedMembers(context, members);
+        memberRepository = context.getBean(MemberRepository.class);
+        snapshot = context.getBean(MemberSnapshotService.class).reload();
+        firstId = snapshot.id(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String randomUsername() {
+        return "member" + ThreadLocalRandom.current().nextInt(members);
+    }
+
+    @Benchmark
+    public void repositoryFindByUsername(Blackhole bh) {
+        bh.consume(memberRepository.findByUsername(randomUsername()));
+    }
+
+    @Benchmark
+    public void snapshotFindByUsername(Blackhole bh) {
+        MemberSnapshot current = snapshot;
+        current.forEachByUsername(randomUsername(), rec -> bh.consume(current.age(rec)));
+    }
+
+    @Benchmark
+    public int snapshotFindById() {
+        long id = firstId + ThreadLocalRandom.current().nextInt(members);
+        int rec = snapshot.findById(id);
+        return rec == MemberSnapshot.NOT_FOUND ? -1 : snapshot.age(rec);
+    }
+}
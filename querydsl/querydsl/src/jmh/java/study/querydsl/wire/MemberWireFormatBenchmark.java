@@ -0,0 +1,99 @@
+package study.querydsl.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List&lt;MemberTeamDto&gt; 직렬화 비용 비교 (행당 ns, 행당 바이트는 setUp 에서 출력)
+ * - json : 지금 /v1/members 가 쓰는 Jackson
+ * - block : MemberBlockWriter (application/x-member-block)
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemberWireFormatBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int TEAMS = 100;
+
+    ObjectMapper objectMapper;
+    List<MemberTeamDto> rows;
+    ByteCounter out = new ByteCounter();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            long teamId = i % TEAMS;
+            rows.add(new MemberTeamDto(i + 1L, "member" + i, i % 100, teamId + 1, "team" + teamId));
+        }
+        json();
+        long jsonBytes = out.reset();
+        block();
+        long blockBytes = out.reset();
+        System.out.printf("%nbytes/row json=%.1f block=%.1f%n", (double) jsonBytes / ROWS, (double) blockBytes / ROWS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long json() throws IOException {
+        objectMapper.writeValue(out, rows);
+        return out.count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long block() throws IOException {
+        try (MemberBlockWriter writer = new MemberBlockWriter(out)) {
+            for (MemberTeamDto row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.count;
+    }
+
+    /**
+     * 응답 스트림 대신 바이트 수만 센다. (Jackson 이 close 해도 계속 쓸 수 있게 close 는 무시)
+     */
+    static class ByteCounter extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        long reset() {
+            long value = count;
+            count = 0;
+            return value;
+        }
+    }
+}
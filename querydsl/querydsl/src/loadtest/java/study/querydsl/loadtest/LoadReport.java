@@ -0,0 +1,95 @@
+package study.querydsl.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 작업별 지연 시간(HdrHistogram, ns)과 오류 수
+ * 지연 시간은 실제 시작이 아니라 보내기로 예정된 시각부터 잰다. (coordinated omission 보정)
+ */
+public class LoadReport {
+
+    private static final long HIGHEST_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    public LoadReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_NANOS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public void record(Operation operation, long latencyNanos, boolean error) {
+        histograms.get(operation).recordValue(Math.min(latencyNanos, HIGHEST_NANOS));
+        if (error) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * 워밍업 구간 기록을 버린다.
+     */
+    public void reset() {
+        histograms.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    public void print(PrintStream out, double elapsedSeconds) {
+        Histogram total = new Histogram(HIGHEST_NANOS, 3);
+        long totalErrors = 0;
+        out.printf("%-18s %9s %10s %8s %9s %9s %9s %9s%n",
+                "operation", "count", "ops/s", "error%", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long errorCount = errors.get(operation).sum();
+            printRow(out, operation.getLabel(), histogram, errorCount, elapsedSeconds);
+            total.add(histogram);
+            totalErrors += errorCount;
+        }
+        printRow(out, "total", total, totalErrors, elapsedSeconds);
+    }
+
+    /**
+     * 작업별 백분위 분포(.hgrm, ms 단위)를 dir 에 남긴다.
+     */
+    public void writeDistributions(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(operation.getLabel() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private static void printRow(PrintStream out, String label, Histogram histogram, long errorCount, double elapsedSeconds) {
+        long count = histogram.getTotalCount();
+        out.printf("%-18s %9d %10.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f%n",
+                label,
+                count,
+                count / elapsedSeconds,
+                count == 0 ? 0.0 : errorCount * 100.0 / count,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,183 @@
+package study.querydsl.loadtest;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 내장 서버를 띄우고 seeding(initMember) 으로 데이터를 넣은 뒤, 작업 비율대로 정해진 속도(rate)로 요청을 보낸다.
+ * 요청은 응답을 기다리지 않고 일정 간격으로 내보내며(open model), 밀린 시간까지 지연 시간에 포함한다.
+ *
+ * ./gradlew loadTest -Dloadtest.members=100000 -Dloadtest.rate=500 -Dloadtest.duration=60
+ * - loadtest.members : 넣을 회원 수 (기본 10000)
+ * - loadtest.rate : 초당 요청 수 (기본 200)
+ * - loadtest.duration / loadtest.warmup : 측정 / 워밍업 시간(초) (기본 30 / 5)
+ * - loadtest.threads : 요청을 보내는 스레드 수 (기본 32)
+ * - loadtest.mix : 작업별 가중치 (기본 DEFAULT_MIX)
+ * - loadtest.report-dir : 작업별 .hgrm 을 남길 디렉터리 (기본 build/loadtest)
+ */
+public class LoadTest {
+
+    private static final String DEFAULT_MIX = "search:40,searchPageSimple:20,searchPageComplex:20,findByUsername:15,bulkUpdate:5";
+    private static final String[] TEAMS = {"teamA", "teamB"};
+    private static final int BULK_SIZE = 100;
+
+    private final int members;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final LoadReport report = new LoadReport();
+    private String baseUrl;
+    private MemberRepository memberRepository;
+    private TransactionTemplate tx;
+    private long minId;
+    private long maxId;
+
+    private LoadTest(int members) {
+        this.members = members;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int members = Integer.getInteger("loadtest.members", 10_000);
+        int rate = Integer.getInteger("loadtest.rate", 200);
+        int duration = Integer.getInteger("loadtest.duration", 30);
+        int warmup = Integer.getInteger("loadtest.warmup", 5);
+        int threads = Integer.getInteger("loadtest.threads", 32);
+        WorkloadMix mix = WorkloadMix.parse(System.getProperty("loadtest.mix", DEFAULT_MIX));
+        Path reportDir = Paths.get(System.getProperty("loadtest.report-dir", "build/loadtest"));
+
+        LoadTest loadTest = new LoadTest(members);
+        try (ConfigurableApplicationContext context = loadTest.start()) {
+            loadTest.run(mix, rate, duration, warmup, threads);
+            System.out.printf("%nmembers=%d, rate=%d/s, duration=%ds, warmup=%ds, threads=%d%n", members, rate, duration, warmup, threads);
+            loadTest.report.print(System.out, duration);
+            loadTest.report.writeDistributions(reportDir);
+            System.out.println("percentile distributions: " + reportDir.toAbsolutePath());
+        }
+        // 내장 서버 / 스케줄러 스레드가 남지 않도록
+        System.exit(0);
+    }
+
+    private ConfigurableApplicationContext start() throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=local",
+                "--init-member.count=" + members,
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.org.hibernate.SQL=warn");
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        memberRepository = context.getBean(MemberRepository.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        // seeding 은 부팅 후 비동기로 돌므로 다 들어갈 때까지 기다린다.
+        while (memberRepository.count() < members) {
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        Tuple bounds = new JPAQueryFactory(context.getBean(EntityManager.class))
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .fetchOne();
+        minId = bounds.get(member.id.min());
+        maxId = bounds.get(member.id.max());
+        return context;
+    }
+
+    private void run(WorkloadMix mix, int rate, int duration, int warmup, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long period = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+        boolean measuring = warmup == 0;
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * period;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!measuring && intended >= measureFrom) {
+                report.reset();
+                measuring = true;
+            }
+            Operation operation = mix.next();
+            pool.execute(() -> execute(operation, intended));
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void execute(Operation operation, long intended) {
+        boolean error;
+        try {
+            error = !call(operation);
+        } catch (Exception e) {
+            error = true;
+        }
+        report.record(operation, System.nanoTime() - intended, error);
+    }
+
+    /**
+     * 성공하면 true
+     */
+    private boolean call(Operation operation) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int ageGoe = random.nextInt(90);
+        switch (operation) {
+            case SEARCH:
+                return get("/v1/members?teamName=" + TEAMS[random.nextInt(TEAMS.length)]
+                        + "&ageGoe=" + ageGoe + "&ageLoe=" + (ageGoe + 10));
+            case PAGE_SIMPLE:
+                return get("/v2/members?page=" + random.nextInt(5) + "&size=20&teamName=" + TEAMS[random.nextInt(TEAMS.length)]);
+            case PAGE_COMPLEX:
+                return get("/v3/members?page=" + random.nextInt(5) + "&size=20&ageGoe=" + ageGoe);
+            case FIND_BY_USERNAME:
+                memberRepository.findByUsername("member" + random.nextInt(members));
+                return true;
+            case BULK_UPDATE:
+                List<Long> ids = new ArrayList<>(BULK_SIZE);
+                for (int i = 0; i < BULK_SIZE; i++) {
+                    ids.add(random.nextLong(minId, maxId + 1));
+                }
+                int delta = random.nextBoolean() ? 1 : -1;
+                tx.executeWithoutResult(status -> memberRepository.bulkAgeAddByIds(delta, ids));
+                return true;
+            default:
+                throw new IllegalStateException("unknown operation: " + operation);
+        }
+    }
+
+    private boolean get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        return response.statusCode() < 400;
+    }
+}
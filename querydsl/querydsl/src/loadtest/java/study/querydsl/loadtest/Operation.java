@@ -0,0 +1,32 @@
+package study.querydsl.loadtest;
+
+/**
+ * 부하 테스트에서 섞어 보내는 작업
+ * 검색 3종은 내장 서버에 HTTP 로, 엔드포인트가 없는 두 작업은 같은 JVM 의 리포지토리를 직접 호출한다.
+ */
+public enum Operation {
+    SEARCH("search"),
+    PAGE_SIMPLE("searchPageSimple"),
+    PAGE_COMPLEX("searchPageComplex"),
+    FIND_BY_USERNAME("findByUsername"),
+    BULK_UPDATE("bulkUpdate");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static Operation of(String label) {
+        for (Operation operation : values()) {
+            if (operation.label.equals(label)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("unknown operation: " + label);
+    }
+}
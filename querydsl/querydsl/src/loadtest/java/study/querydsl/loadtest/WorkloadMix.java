@@ -0,0 +1,59 @@
+package study.querydsl.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 가중치에 따라 작업을 고른다.
+ * 예) search:40,searchPageSimple:20,searchPageComplex:20,findByUsername:15,bulkUpdate:5
+ */
+public class WorkloadMix {
+
+    private final Operation[] operations;
+    private final int[] cumulative;
+
+    private WorkloadMix(Map<Operation, Integer> weights) {
+        this.operations = new Operation[weights.size()];
+        this.cumulative = new int[weights.size()];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            total += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulative[i] = total;
+            i++;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("workload mix has no weight");
+        }
+    }
+
+    public static WorkloadMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("invalid workload mix: " + mix);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("negative weight: " + part);
+            }
+            if (weight > 0) {
+                weights.put(Operation.of(pair[0].trim()), weight);
+            }
+        }
+        return new WorkloadMix(weights);
+    }
+
+    public Operation next() {
+        int value = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (value < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+}
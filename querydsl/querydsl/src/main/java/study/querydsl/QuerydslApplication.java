@@ -2,8 +2,14 @@ package study.querydsl;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@EnableScheduling
+@EnableAsync
+// R2DBC 는 리액티브 검색에만 쓴다. (ReactiveConfig) 자동 구성된 ConnectionFactory 가 있으면 DataSource/JPA 가 구성되지 않으므로 제외
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class QuerydslApplication {
 
 	public static void main(String[] args) {
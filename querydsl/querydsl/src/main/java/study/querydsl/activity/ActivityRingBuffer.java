@@ -0,0 +1,99 @@
+package study.querydsl.activity;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 여러 스레드가 넣고 한 스레드가 꺼내는 고정 크기 링 버퍼 (잠금 없음)
+ *
+ * 슬롯마다 순번을 둔다. 넣는 쪽은 tail 을 CAS 로 하나 차지해 값을 쓴 뒤 순번을 pos + 1 로 올려 공개하고,
+ * 꺼내는 쪽은 순번이 head + 1 인 슬롯만 읽은 뒤 head + capacity 로 바꿔 다음 바퀴에 돌려준다.
+ * 값은 원시 배열에 나눠 담아 이벤트마다 객체를 만들지 않는다.
+ */
+class ActivityRingBuffer {
+
+    interface Sink {
+        void accept(long memberId, String activityType, long occurredAt);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] memberIds;
+    private final String[] activityTypes;
+    private final long[] occurredAts;
+
+    private final AtomicLong tail = new AtomicLong();
+    // 꺼내는 스레드만 고친다. (size() 에서 읽으므로 volatile)
+    private volatile long head;
+
+    ActivityRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.memberIds = new long[capacity];
+        this.activityTypes = new String[capacity];
+        this.occurredAts = new long[capacity];
+    }
+
+    /**
+     * 가득 차 있으면 false
+     */
+    boolean offer(long memberId, String activityType, long occurredAt) {
+        long pos = tail.get();
+        while (true) {
+            long available = sequences.get((int) (pos & mask)) - pos;
+            if (available == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (available < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        int index = (int) (pos & mask);
+        memberIds[index] = memberId;
+        activityTypes[index] = activityType;
+        occurredAts[index] = occurredAt;
+        sequences.set(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * 공개된 이벤트를 최대 max 개까지 꺼내고, 꺼낸 수를 반환한다. (한 스레드에서만 호출)
+     */
+    int drain(Sink sink, int max) {
+        long pos = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) {
+                break;
+            }
+            sink.accept(memberIds[index], activityTypes[index], occurredAts[index]);
+            activityTypes[index] = null;
+            sequences.set(index, pos + capacity);
+            pos++;
+            count++;
+        }
+        head = pos;
+        return count;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
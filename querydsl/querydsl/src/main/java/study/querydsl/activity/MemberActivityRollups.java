@@ -0,0 +1,86 @@
+package study.querydsl.activity;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLBindings;
+import com.querydsl.sql.SQLQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.ActivityCountDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static study.querydsl.activity.SMemberActivityHourly.memberActivityHourly;
+import static study.querydsl.reactive.SMember.member;
+
+/**
+ * 활동 집계(member_activity_hourly) 조회
+ * SQL 은 Querydsl SQL 로 만들고 실행은 JdbcTemplate 으로 한다. (스프링 트랜잭션의 커넥션을 그대로 쓴다)
+ * from/to 는 시간 구간의 시작(bucket_start)에 건다.
+ */
+@Repository
+public class MemberActivityRollups {
+
+    private static final Configuration CONFIGURATION = new Configuration(H2Templates.builder().build());
+    private static final RowMapper<ActivityCountDto> COUNT_MAPPER =
+            (rs, rowNum) -> new ActivityCountDto(rs.getObject(1, Long.class), rs.getLong(2));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MemberActivityRollups(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * [from, to) 회원별 이벤트 수, 많은 순으로 최대 limit 명 (activityType 이 null 이면 모든 유형)
+     */
+    public List<ActivityCountDto> countByMember(LocalDateTime from, LocalDateTime to, String activityType, int limit) {
+        NumberExpression<Long> total = memberActivityHourly.eventCount.sum();
+        return fetch(query()
+                .select(memberActivityHourly.memberId, total)
+                .from(memberActivityHourly)
+                .where(bucketBetween(from, to), activityTypeEq(activityType))
+                .groupBy(memberActivityHourly.memberId)
+                .orderBy(total.desc(), memberActivityHourly.memberId.asc())
+                .limit(limit), COUNT_MAPPER);
+    }
+
+    /**
+     * [from, to) 팀별 이벤트 수, 많은 순으로 최대 limit 팀 (조회 시점의 소속 팀 기준, 팀 없는 회원은 빠진다)
+     */
+    public List<ActivityCountDto> countByTeam(LocalDateTime from, LocalDateTime to, String activityType, int limit) {
+        NumberExpression<Long> total = memberActivityHourly.eventCount.sum();
+        return fetch(query()
+                .select(member.teamId, total)
+                .from(memberActivityHourly)
+                .join(member).on(member.id.eq(memberActivityHourly.memberId))
+                .where(bucketBetween(from, to), activityTypeEq(activityType), member.teamId.isNotNull())
+                .groupBy(member.teamId)
+                .orderBy(total.desc(), member.teamId.asc())
+                .limit(limit), COUNT_MAPPER);
+    }
+
+    /**
+     * 그 밖의 집계는 SMemberActivityHourly / SMemberActivity 로 직접 만들어 fetch 로 실행한다.
+     */
+    public SQLQuery<Void> query() {
+        return new SQLQuery<>(CONFIGURATION);
+    }
+
+    public <T> List<T> fetch(SQLQuery<?> query, RowMapper<T> rowMapper) {
+        SQLBindings sql = query.getSQL();
+        return jdbcTemplate.query(sql.getSQL(), rowMapper, sql.getNullFriendlyBindings().toArray());
+    }
+
+    private static Predicate bucketBetween(LocalDateTime from, LocalDateTime to) {
+        return memberActivityHourly.bucketStart.goe(from).and(memberActivityHourly.bucketStart.lt(to));
+    }
+
+    private static Predicate activityTypeEq(String activityType) {
+        return activityType == null ? null : memberActivityHourly.activityType.eq(activityType);
+    }
+}
@@ -0,0 +1,236 @@
+package study.querydsl.activity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 활동 이벤트 적재
+ *
+ * record 는 링 버퍼(ActivityRingBuffer)에 넣기만 하고 바로 돌아온다. (JPA, 트랜잭션, 잠금 없음)
+ * 주기적으로 batch-size 씩 꺼내 member_activity 에 JDBC 배치로 넣고,
+ * 같은 트랜잭션에서 시간 단위 집계(member_activity_hourly)를 MERGE 로 더한다.
+ * 버퍼가 가득 차면 이벤트를 버리고 false 를 반환한다. (member.activity.dropped)
+ * 집계는 이 writer 하나만 고친다고 가정한다. (인스턴스가 여럿이면 같은 키의 MERGE 가 부딪힐 수 있다)
+ *
+ * flush 는 @Scheduled 가 아니라 전용 스레드(member-activity-flush)에서 돈다.
+ * 스프링 기본 스케줄러는 스레드 하나를 nightlyExport/nightlyArchive 같은 긴 작업과 함께 쓰므로,
+ * 그 작업이 도는 동안 flush 가 멈추면 버퍼가 차서 이벤트를 버리게 된다.
+ */
+@Slf4j
+@Component
+public class MemberActivityWriter {
+
+    static final int MAX_TYPE_LENGTH = 50;
+
+    private static final String INSERT_SQL =
+            "insert into member_activity (member_id, activity_type, occurred_at) values (?, ?, ?)";
+    private static final String ROLLUP_SQL =
+            "merge into member_activity_hourly h " +
+            "using (select cast(? as timestamp) bucket_start, cast(? as bigint) member_id, " +
+            "cast(? as varchar(50)) activity_type, cast(? as bigint) event_count) s " +
+            "on h.bucket_start = s.bucket_start and h.member_id = s.member_id and h.activity_type = s.activity_type " +
+            "when matched then update set event_count = h.event_count + s.event_count " +
+            "when not matched then insert (bucket_start, member_id, activity_type, event_count) " +
+            "values (s.bucket_start, s.member_id, s.activity_type, s.event_count)";
+
+    private final ActivityRingBuffer ring;
+    private final Batch batch;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter written;
+    private final Counter dropped;
+    private final long flushIntervalMillis;
+    private ScheduledExecutorService flusher;
+
+    public MemberActivityWriter(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${member-activity.buffer-size:65536}") int bufferSize,
+                                @Value("${member-activity.batch-size:5000}") int batchSize,
+                                @Value("${member-activity.flush-interval-ms:100}") long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.ring = new ActivityRingBuffer(bufferSize);
+        this.batch = new Batch(batchSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.written = meterRegistry.counter("member.activity.written");
+        this.dropped = meterRegistry.counter("member.activity.dropped");
+        Gauge.builder("member.activity.buffered", ring, ActivityRingBuffer::size).register(meterRegistry);
+    }
+
+    public boolean record(long memberId, String activityType) {
+        return record(memberId, activityType, System.currentTimeMillis());
+    }
+
+    public boolean record(long memberId, String activityType, LocalDateTime occurredAt) {
+        return record(memberId, activityType, Timestamp.valueOf(occurredAt).getTime());
+    }
+
+    private boolean record(long memberId, String activityType, long occurredAt) {
+        if (activityType == null || activityType.isEmpty() || activityType.length() > MAX_TYPE_LENGTH) {
+            throw new IllegalArgumentException("activityType must be 1.." + MAX_TYPE_LENGTH + " characters: " + activityType);
+        }
+        if (ring.offer(memberId, activityType, occurredAt)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 버퍼에 쌓인 이벤트 수 (대략)
+     */
+    public int bufferedCount() {
+        return ring.size();
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-activity-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("member activity flush failed, will retry", e);
+        }
+    }
+
+    /**
+     * 버퍼를 batch-size 씩 비우면서 쓰고, 쓴 이벤트 수를 반환한다.
+     * 실패한 배치는 버리지 않고 남겨 두었다가 다음 flush 때 먼저 쓴다.
+     */
+    public synchronized long flush() {
+        long total = 0;
+        boolean more = true;
+        while (more) {
+            if (batch.size == 0) {
+                ring.drain(batch, batch.capacity());
+            }
+            if (batch.size == 0) {
+                break;
+            }
+            // 꽉 찬 배치였으면 뒤에 더 있을 수 있다.
+            more = batch.size == batch.capacity();
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            total += batch.size;
+            written.increment(batch.size);
+            batch.clear();
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (flusher != null) {
+            // 돌고 있던 flush 가 끝난 뒤 남은 이벤트를 쓴다.
+            flusher.shutdown();
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("member activity flush on shutdown failed, {} events lost", batch.size + ring.size(), e);
+        }
+    }
+
+    private void write(Batch batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, batch.memberIds[i]);
+                ps.setString(2, batch.activityTypes[i]);
+                ps.setTimestamp(3, new Timestamp(batch.occurredAts[i]));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size;
+            }
+        });
+
+        Map<RollupKey, Long> rollup = new HashMap<>();
+        for (int i = 0; i < batch.size; i++) {
+            LocalDateTime bucket = new Timestamp(batch.occurredAts[i]).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+            rollup.merge(new RollupKey(bucket, batch.memberIds[i], batch.activityTypes[i]), 1L, Long::sum);
+        }
+        List<Object[]> rows = new ArrayList<>(rollup.size());
+        rollup.forEach((key, count) ->
+                rows.add(new Object[]{Timestamp.valueOf(key.bucketStart), key.memberId, key.activityType, count}));
+        jdbcTemplate.batchUpdate(ROLLUP_SQL, rows);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class RollupKey {
+        private final LocalDateTime bucketStart;
+        private final long memberId;
+        private final String activityType;
+    }
+
+    /**
+     * 링 버퍼에서 꺼낸 이벤트를 쓰기 전까지 담아 둔다. (flush 사이에 재사용)
+     */
+    private static class Batch implements ActivityRingBuffer.Sink {
+
+        private final long[] memberIds;
+        private final String[] activityTypes;
+        private final long[] occurredAts;
+        private int size;
+
+        Batch(int capacity) {
+            this.memberIds = new long[capacity];
+            this.activityTypes = new String[capacity];
+            this.occurredAts = new long[capacity];
+        }
+
+        @Override
+        public void accept(long memberId, String activityType, long occurredAt) {
+            memberIds[size] = memberId;
+            activityTypes[size] = activityType;
+            occurredAts[size] = occurredAt;
+            size++;
+        }
+
+        int capacity() {
+            return memberIds.length;
+        }
+
+        void clear() {
+            Arrays.fill(activityTypes, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package study.querydsl.activity;
+
+import com.querydsl.core.types.PathMetadataFactory;
+import com.querydsl.core.types.dsl.DateTimePath;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * member_activity 테이블의 Querydsl SQL 타입 (추가 전용, 엔티티 없음)
+ */
+public class SMemberActivity extends RelationalPathBase<SMemberActivity> {
+
+    public static final SMemberActivity memberActivity = new SMemberActivity("a");
+
+    public final NumberPath<Long> memberId = createNumber("memberId", Long.class);
+    public final StringPath activityType = createString("activityType");
+    public final DateTimePath<LocalDateTime> occurredAt = createDateTime("occurredAt", LocalDateTime.class);
+
+    public SMemberActivity(String variable) {
+        super(SMemberActivity.class, PathMetadataFactory.forVariable(variable), null, "member_activity");
+        addMetadata(memberId, ColumnMetadata.named("member_id").withIndex(1).ofType(Types.BIGINT));
+        addMetadata(activityType, ColumnMetadata.named("activity_type").withIndex(2).ofType(Types.VARCHAR));
+        addMetadata(occurredAt, ColumnMetadata.named("occurred_at").withIndex(3).ofType(Types.TIMESTAMP));
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.activity;
+
+import com.querydsl.core.types.PathMetadataFactory;
+import com.querydsl.core.types.dsl.DateTimePath;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * member_activity_hourly 테이블의 Querydsl SQL 타입
+ */
+public class SMemberActivityHourly extends RelationalPathBase<SMemberActivityHourly> {
+
+    public static final SMemberActivityHourly memberActivityHourly = new SMemberActivityHourly("h");
+
+    public final DateTimePath<LocalDateTime> bucketStart = createDateTime("bucketStart", LocalDateTime.class);
+    public final NumberPath<Long> memberId = createNumber("memberId", Long.class);
+    public final StringPath activityType = createString("activityType");
+    public final NumberPath<Long> eventCount = createNumber("eventCount", Long.class);
+
+    public SMemberActivityHourly(String variable) {
+        super(SMemberActivityHourly.class, PathMetadataFactory.forVariable(variable), null, "member_activity_hourly");
+        addMetadata(bucketStart, ColumnMetadata.named("bucket_start").withIndex(1).ofType(Types.TIMESTAMP));
+        addMetadata(memberId, ColumnMetadata.named("member_id").withIndex(2).ofType(Types.BIGINT));
+        addMetadata(activityType, ColumnMetadata.named("activity_type").withIndex(3).ofType(Types.VARCHAR));
+        addMetadata(eventCount, ColumnMetadata.named("event_count").withIndex(4).ofType(Types.BIGINT));
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.MemberRepository;
+
+/**
+ * 보관 규칙(나이 > archive.age-greater-than)에 맞는 회원을 member_archive 로 옮겨 member 테이블을 작게 유지한다.
+ * 청크마다 트랜잭션을 나누므로 한 번에 긴 락을 잡지 않고, 중간에 실패해도 옮긴 청크는 남는다.
+ */
+@Slf4j
+@Component
+public class MemberArchiveJob {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int ageGreaterThan;
+
+    public MemberArchiveJob(MemberRepository memberRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${archive.chunk-size:1000}") int chunkSize,
+                            @Value("${archive.age-greater-than:100}") int ageGreaterThan) {
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.ageGreaterThan = ageGreaterThan;
+    }
+
+    @Scheduled(cron = "${archive.cron:-}")
+    public void nightlyArchive() {
+        archiveAgeGreaterThan(ageGreaterThan);
+    }
+
+    /**
+     * 나이가 age 보다 많은 회원을 모두 옮기고, 옮긴 회원 수를 반환한다.
+     */
+    public long archiveAgeGreaterThan(int age) {
+        long start = System.currentTimeMillis();
+        long total = 0;
+        long moved;
+        do {
+            Long count = transactionTemplate.execute(status -> memberRepository.archiveByAgeGreaterThan(age, chunkSize));
+            moved = count == null ? 0 : count;
+            total += moved;
+        } while (moved == chunkSize);
+        log.info("archived {} members (age > {}) in {} ms", total, age, System.currentTimeMillis() - start);
+        return total;
+    }
+}
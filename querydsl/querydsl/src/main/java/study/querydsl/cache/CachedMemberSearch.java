@@ -0,0 +1,85 @@
+package study.querydsl.cache;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.planner.MemberSearchPlanner;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * MemberSearchCache 를 거치는 검색
+ * 호출한 쪽 트랜잭션 안에서는 아직 커밋되지 않은 쓰기를 볼 수 있으므로 캐시를 쓰지 않는다.
+ */
+@Service
+public class CachedMemberSearch {
+
+    private final MemberSearchPlanner memberSearchPlanner;
+    private final MemberRepository memberRepository;
+    private final MemberSearchCache cache;
+    private final JPAQueryFactory queryFactory;
+    private final boolean enabled;
+
+    public CachedMemberSearch(MemberSearchPlanner memberSearchPlanner,
+                              MemberRepository memberRepository,
+                              MemberSearchCache cache,
+                              EntityManager em,
+                              @Value("${search-cache.enabled:true}") boolean enabled) {
+        this.memberSearchPlanner = memberSearchPlanner;
+        this.memberRepository = memberRepository;
+        this.cache = cache;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.enabled = enabled;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        if (!usable()) {
+            return memberSearchPlanner.search(condition);
+        }
+        return cache.get(SearchCacheKey.of(condition),
+                () -> new CachedResult(memberSearchPlanner.search(condition), null),
+                () -> conditionTeamIds(condition.getTeamName()))
+                .getContent();
+    }
+
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        if (!usable()) {
+            return memberRepository.searchPageComplex(condition, pageable);
+        }
+        CachedResult result = cache.get(SearchCacheKey.of(condition, pageable),
+                () -> {
+                    Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, pageable);
+                    return new CachedResult(page.getContent(), page.getTotalElements());
+                },
+                () -> conditionTeamIds(condition.getTeamName()));
+        return new PageImpl<>(result.getContent(), pageable, result.getTotal());
+    }
+
+    private boolean usable() {
+        return enabled && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private Collection<Long> conditionTeamIds(String teamName) {
+        if (!hasText(teamName)) {
+            return Collections.emptyList();
+        }
+        return queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .fetch();
+    }
+}
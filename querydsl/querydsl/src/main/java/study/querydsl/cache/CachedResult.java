@@ -0,0 +1,22 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+
+/**
+ * 캐시에 넣는 결과. 페이지 조회면 전체 건수(total)도 함께 둔다.
+ */
+@Getter
+class CachedResult {
+
+    private final List<MemberTeamDto> content;
+    // 페이지 조회가 아니면 null
+    private final Long total;
+
+    CachedResult(List<MemberTeamDto> content, Long total) {
+        this.content = content;
+        this.total = total;
+    }
+}
@@ -0,0 +1,163 @@
+package study.querydsl.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 힙에서 밀려난 결과를 로컬 디스크에 보관하는 2차 계층 (최대 maxEntries 개, LRU)
+ * 내려가 있는 동안의 변경은 확인할 수 없으므로 시작할 때 디렉터리를 비운다.
+ * 개수 제한으로 밀려난 키는 onEvict 로 알린다. (상위 캐시의 키 목록에서 지우도록)
+ */
+@Slf4j
+class DiskSearchCacheTier {
+
+    private final Path dir;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<SearchCacheKey, Path> files;
+
+    DiskSearchCacheTier(Path dir, int maxEntries, Consumer<SearchCacheKey> onEvict) {
+        this.dir = dir;
+        this.files = new LinkedHashMap<SearchCacheKey, Path>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchCacheKey, Path> eldest) {
+                if (size() > maxEntries) {
+                    delete(eldest.getValue());
+                    onEvict.accept(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+        try {
+            Files.createDirectories(dir);
+            try (Stream<Path> old = Files.list(dir)) {
+                old.forEach(DiskSearchCacheTier::delete);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void put(SearchCacheKey key, CachedResult result) {
+        Path file = dir.resolve(sequence.incrementAndGet() + ".bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            write(out, result);
+        } catch (IOException e) {
+            log.warn("search cache disk write failed. key={}", key, e);
+            delete(file);
+            return;
+        }
+        Path previous;
+        synchronized (files) {
+            previous = files.put(key, file);
+        }
+        if (previous != null) {
+            delete(previous);
+        }
+    }
+
+    /**
+     * 꺼낸 결과는 디스크에서 지운다. (힙으로 올라간다)
+     */
+    CachedResult take(SearchCacheKey key) {
+        Path file;
+        synchronized (files) {
+            file = files.remove(key);
+        }
+        if (file == null) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return read(in);
+        } catch (IOException e) {
+            log.warn("search cache disk read failed. key={}", key, e);
+            return null;
+        } finally {
+            delete(file);
+        }
+    }
+
+    void remove(SearchCacheKey key) {
+        Path file;
+        synchronized (files) {
+            file = files.remove(key);
+        }
+        if (file != null) {
+            delete(file);
+        }
+    }
+
+    int size() {
+        synchronized (files) {
+            return files.size();
+        }
+    }
+
+    private static void write(DataOutputStream out, CachedResult result) throws IOException {
+        out.writeLong(result.getTotal() == null ? -1 : result.getTotal());
+        out.writeInt(result.getContent().size());
+        for (MemberTeamDto dto : result.getContent()) {
+            writeLong(out, dto.getMemberId());
+            writeString(out, dto.getUsername());
+            out.writeInt(dto.getAge());
+            writeLong(out, dto.getTeamId());
+            writeString(out, dto.getTeamName());
+        }
+    }
+
+    private static CachedResult read(DataInputStream in) throws IOException {
+        long total = in.readLong();
+        int size = in.readInt();
+        List<MemberTeamDto> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            content.add(new MemberTeamDto(readLong(in), readString(in), in.readInt(), readLong(in), readString(in)));
+        }
+        return new CachedResult(content, total < 0 ? null : total);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("search cache file delete failed. file={}", file, e);
+        }
+    }
+}
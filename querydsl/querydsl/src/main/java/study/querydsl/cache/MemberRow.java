@@ -0,0 +1,19 @@
+package study.querydsl.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 무효화 판단에 쓰는 회원 한 행의 값 (변경 전 또는 후)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+class MemberRow {
+
+    private final Long id;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+}
@@ -0,0 +1,206 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.changelog.ChangeEvent;
+import study.querydsl.changelog.ChangeLogConsumer;
+import study.querydsl.changelog.ChangeType;
+import study.querydsl.entity.Member;
+
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 결과 캐시
+ * - heap : Caffeine (크기 제한, W-TinyLFU 교체)
+ * - disk : search-cache.disk.dir 을 주면 heap 에서 밀려난 결과를 로컬 디스크에 보관
+ *
+ * 무효화는 바뀐 행이 결과에 들어 있거나 조건을 만족할 수 있는 항목만 한다.
+ * - 엔티티 단건 쓰기 : SearchCacheInvalidationListener 가 변경 전/후 값으로 바로 (커밋 후 한 번 더)
+ * - 벌크 DML : change_log 의 id 범위로 (ChangeLogConsumer)
+ * 읽는 도중 무효화가 있었으면 그 결과는 넣지 않는다. (invalidations 순번 비교)
+ */
+@Slf4j
+@Component
+public class MemberSearchCache implements ChangeLogConsumer {
+
+    private final Cache<SearchCacheKey, CachedResult> heap;
+    private final DiskSearchCacheTier disk;
+    private final Map<SearchCacheKey, SearchCacheEntry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+
+    public MemberSearchCache(MeterRegistry meterRegistry,
+                             @Value("${search-cache.max-entries:10000}") long maxEntries,
+                             @Value("${search-cache.disk.dir:}") String diskDir,
+                             @Value("${search-cache.disk.max-entries:100000}") int diskMaxEntries) {
+        this.meterRegistry = meterRegistry;
+        // 디스크에서도 밀려난 결과는 캐시에서 완전히 빠진다.
+        this.disk = hasText(diskDir) ? new DiskSearchCacheTier(Paths.get(diskDir), diskMaxEntries, entries::remove) : null;
+        this.heap = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                // 밀려난 결과를 바로 디스크로 내리도록 호출 스레드에서 처리
+                .executor(Runnable::run)
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, heap, "member.search.cache");
+    }
+
+    /**
+     * 캐시에 있으면 꺼내고, 없으면 loader 로 읽어 넣는다.
+     * conditionTeamIds 는 팀명 조건에 해당하는 팀 id (무효화 판단용)
+     */
+    CachedResult get(SearchCacheKey key,
+                            Supplier<CachedResult> loader,
+                            Supplier<Collection<Long>> conditionTeamIds) {
+        CachedResult cached = heap.getIfPresent(key);
+        if (cached != null) {
+            count("heap");
+            return cached;
+        }
+        if (disk != null && entries.containsKey(key)) {
+            cached = disk.take(key);
+            if (cached != null) {
+                count("disk");
+                heap.put(key, cached);
+                return cached;
+            }
+            // 읽지 못한 파일은 이미 지워졌다.
+            entries.remove(key);
+        }
+        count("miss");
+
+        long stamp = invalidations.get();
+        Collection<Long> teamIds = conditionTeamIds.get();
+        CachedResult loaded = loader.get();
+        SearchCacheEntry entry = new SearchCacheEntry(key, loaded.getContent(), teamIds);
+        entries.put(key, entry);
+        heap.put(key, loaded);
+        if (invalidations.get() != stamp) {
+            // 읽는 사이에 쓰기가 있었다. 옛 값일 수 있으므로 버린다.
+            invalidate(key);
+        }
+        return loaded;
+    }
+
+    public boolean contains(SearchCacheKey key) {
+        return entries.containsKey(key);
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.keySet().forEach(this::invalidate);
+    }
+
+    /**
+     * 회원 한 행이 before -> after 로 바뀌었다. (insert 면 before, delete 면 after 가 null)
+     */
+    void invalidateRow(MemberRow before, MemberRow after) {
+        invalidateWhere(entry -> entry.affectedBy(before, after));
+    }
+
+    /**
+     * 팀 이름이 바뀌면 팀명 조건의 팀 id 도 달라지므로 팀명 조건이 있는 항목은 모두 무효화
+     */
+    void invalidateTeam(Long teamId) {
+        invalidateWhere(entry -> entry.getKey().getTeamName() != null || entry.containsTeam(teamId));
+    }
+
+    /**
+     * 벌크 DML 은 변경 전 값을 모르므로
+     * - 결과에 범위 안 회원이 있으면 무효화
+     * - BULK_UPDATE, BULK_AGE_ADD (나이 증감만 있다) 는 나이 조건이 있는 항목과, 나이로 정렬한 페이지 항목도 무효화
+     *   (범위 밖 회원의 나이가 바뀌어 페이지 안으로 들어오거나 밀려날 수 있다)
+     * - BULK_DELETE 는 지워진 행이 전체 건수에 들어 있었을 수 있으므로 페이지 항목도 무효화
+     * - BULK_UPSERT 는 어떤 컬럼이든 바뀌고 새 행도 생기므로 전부 무효화
+     */
+    void invalidateRange(ChangeType changeType, long fromId, long toId) {
+        boolean ageChanged = changeType == ChangeType.BULK_UPDATE || changeType == ChangeType.BULK_AGE_ADD;
+        invalidateWhere(entry -> changeType == ChangeType.BULK_UPSERT
+                || entry.containsMemberInRange(fromId, toId)
+                || (ageChanged && entry.getKey().hasAgeCondition())
+                || (ageChanged && entry.getKey().isPaged() && entry.getKey().isSortedBy("age"))
+                || (changeType == ChangeType.BULK_DELETE && entry.getKey().isPaged()));
+    }
+
+    private void invalidateWhere(Predicate<SearchCacheEntry> affected) {
+        invalidations.incrementAndGet();
+        int count = 0;
+        for (SearchCacheEntry entry : entries.values()) {
+            if (affected.test(entry)) {
+                invalidate(entry.getKey());
+                count++;
+            }
+        }
+        if (count > 0) {
+            meterRegistry.counter("member.search.cache.invalidations").increment(count);
+        }
+    }
+
+    private void invalidate(SearchCacheKey key) {
+        entries.remove(key);
+        heap.invalidate(key);
+        if (disk != null) {
+            disk.remove(key);
+        }
+    }
+
+    private void onRemoval(SearchCacheKey key, CachedResult result, RemovalCause cause) {
+        if (!cause.wasEvicted() || key == null || result == null) {
+            return;
+        }
+        if (disk == null) {
+            entries.remove(key);
+            return;
+        }
+        SearchCacheEntry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        disk.put(key, result);
+        // 내리는 사이에 무효화됐으면 디스크에서도 지운다.
+        if (entries.get(key) != entry) {
+            disk.remove(key);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("member.search.cache.requests", "result", result).increment();
+    }
+
+    @Override
+    public String consumerName() {
+        return "member-search-cache";
+    }
+
+    @Override
+    public boolean perInstance() {
+        return true;
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        // 단건 변경은 엔티티 리스너에서 이미 무효화했다.
+        if (event.isBulk() && Member.class.getSimpleName().equals(event.getEntityType()) && event.getFromId() != null) {
+            invalidateRange(event.getChangeType(), event.getFromId(), event.getToId());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 무효화 판단용 메타데이터. 결과가 어느 계층(heap / disk)에 있든 힙에 유지한다.
+ * - memberIds : 결과에 들어있는 회원 id (정렬)
+ * - teamIds : 결과에 들어있는 팀 id (정렬)
+ * - conditionTeamIds : 팀명 조건에 해당하던 팀 id (정렬)
+ */
+@Getter
+class SearchCacheEntry {
+
+    private final SearchCacheKey key;
+    private final long[] memberIds;
+    private final long[] teamIds;
+    private final long[] conditionTeamIds;
+
+    SearchCacheEntry(SearchCacheKey key, List<MemberTeamDto> content, Collection<Long> conditionTeamIds) {
+        this.key = key;
+        this.memberIds = sorted(content.stream().map(MemberTeamDto::getMemberId).filter(Objects::nonNull).mapToLong(Long::longValue).toArray());
+        this.teamIds = sorted(content.stream().map(MemberTeamDto::getTeamId).filter(Objects::nonNull).mapToLong(Long::longValue).distinct().toArray());
+        this.conditionTeamIds = sorted(conditionTeamIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * 바뀐 행이 이 결과에 들어 있었거나, 변경 전/후 값이 조건을 만족하면 결과가 달라질 수 있다.
+     */
+    boolean affectedBy(MemberRow before, MemberRow after) {
+        Long id = before != null ? before.getId() : after.getId();
+        return contains(memberIds, id)
+                || (before != null && key.matches(before, conditionTeamIds))
+                || (after != null && key.matches(after, conditionTeamIds));
+    }
+
+    boolean containsMemberInRange(long fromId, long toId) {
+        int index = Arrays.binarySearch(memberIds, fromId);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < memberIds.length && memberIds[index] <= toId;
+    }
+
+    boolean containsTeam(long teamId) {
+        return contains(teamIds, teamId);
+    }
+
+    static boolean contains(long[] sorted, Long value) {
+        return value != null && Arrays.binarySearch(sorted, value) >= 0;
+    }
+
+    private static long[] sorted(long[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
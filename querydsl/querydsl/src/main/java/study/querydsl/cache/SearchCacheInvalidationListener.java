@@ -0,0 +1,104 @@
+package study.querydsl.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.HibernateEvents;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+
+/**
+ * Member / Team 엔티티 쓰기를 MemberSearchCache 에 바로 알린다.
+ * flush 시점에 한 번, 트랜잭션이 끝난 뒤 한 번 더 무효화해서
+ * 그 사이 커밋 전 값으로 채워진 항목도 지운다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchCacheInvalidationListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final MemberSearchCache cache;
+
+    @PostConstruct
+    public void register() {
+        HibernateEvents.register(emf, this, EventType.POST_INSERT, EventType.POST_UPDATE, EventType.POST_DELETE);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            MemberRow after = row(event.getId(), event.getState(), event.getPersister(), event.getSession());
+            invalidate(() -> cache.invalidateRow(null, after));
+        } else if (event.getEntity() instanceof Team) {
+            invalidateTeam(event.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            MemberRow after = row(event.getId(), event.getState(), event.getPersister(), event.getSession());
+            // 변경 전 값을 모르면(분리 상태에서 update) 결과에 들어 있던 항목만 알 수 있으므로 전부 비운다.
+            if (event.getOldState() == null) {
+                invalidate(cache::invalidateAll);
+                return;
+            }
+            MemberRow before = row(event.getId(), event.getOldState(), event.getPersister(), event.getSession());
+            invalidate(() -> cache.invalidateRow(before, after));
+        } else if (event.getEntity() instanceof Team) {
+            invalidateTeam(event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            MemberRow before = row(event.getId(), event.getDeletedState(), event.getPersister(), event.getSession());
+            invalidate(() -> cache.invalidateRow(before, null));
+        } else if (event.getEntity() instanceof Team) {
+            invalidateTeam(event.getId());
+        }
+    }
+
+    private void invalidateTeam(Serializable teamId) {
+        invalidate(() -> cache.invalidateTeam((Long) teamId));
+    }
+
+    private void invalidate(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static MemberRow row(Serializable id, Object[] state, EntityPersister persister, EventSource session) {
+        Object username = state[persister.getEntityMetamodel().getPropertyIndex("username")];
+        Object age = state[persister.getEntityMetamodel().getPropertyIndex("age")];
+        return new MemberRow((Long) id, (String) username, age == null ? 0 : (Integer) age,
+                HibernateEvents.memberTeamId(state, persister, session));
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.cache;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import study.querydsl.condition.ConditionFields;
+import study.querydsl.dialect.MemberFunctions;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 정규화한 검색 조건 + 페이지
+ * 조건은 값이 있는 애너테이션 필드만 담으므로 빈 문자열 조건은 null 과 같은 키가 된다.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class SearchCacheKey {
+
+    private static final ConditionFields<MemberSearchCondition> FIELDS = ConditionFields.of(MemberSearchCondition.class);
+
+    // 필드명 -> 값
+    private final Map<String, Object> values;
+    private final boolean includeArchived;
+
+    // 페이지 조회가 아니면 offset = -1
+    private final long offset;
+    private final int pageSize;
+    private final String sort;
+    // sort 에서 뽑은 정렬 속성 (무효화 판단용)
+    @EqualsAndHashCode.Exclude
+    private final Set<String> sortProperties;
+
+    private SearchCacheKey(MemberSearchCondition condition, long offset, int pageSize, Sort sort) {
+        this.values = FIELDS.values(condition);
+        this.includeArchived = condition.isIncludeArchived();
+        this.offset = offset;
+        this.pageSize = pageSize;
+        this.sort = sort == null ? null : sort.toString();
+        this.sortProperties = sort == null ? Set.of()
+                : sort.stream().map(Sort.Order::getProperty).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static SearchCacheKey of(MemberSearchCondition condition) {
+        return new SearchCacheKey(condition, -1, 0, null);
+    }
+
+    public static SearchCacheKey of(MemberSearchCondition condition, Pageable pageable) {
+        return new SearchCacheKey(condition, pageable.getOffset(), pageable.getPageSize(), pageable.getSort());
+    }
+
+    public boolean isPaged() {
+        return offset >= 0;
+    }
+
+    public String getTeamName() {
+        return (String) values.get("teamName");
+    }
+
+    public boolean isSortedBy(String property) {
+        return sortProperties.contains(property);
+    }
+
+    public boolean hasAgeCondition() {
+        return FIELDS.getFields().stream()
+                .anyMatch(field -> "age".equals(field.getProperty()) && values.containsKey(field.getName()));
+    }
+
+    /**
+     * 행의 값이 이 조건을 만족하는지 (팀명은 캐시에 넣을 때 구해 둔 팀 id 로 비교)
+     */
+    boolean matches(MemberRow row, long[] conditionTeamIds) {
+        if (getTeamName() != null && !SearchCacheEntry.contains(conditionTeamIds, row.getTeamId())) {
+            return false;
+        }
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("username", row.getUsername());
+        properties.put("age", row.getAge());
+        properties.put("teamId", row.getTeamId());
+        properties.put("normalizedUsername", MemberFunctions.normalize(row.getUsername()));
+        return FIELDS.matches(values, properties);
+    }
+}
@@ -0,0 +1,49 @@
+package study.querydsl.changelog;
+
+import lombok.Getter;
+import lombok.ToString;
+import study.querydsl.entity.ChangeLog;
+
+import java.time.LocalDateTime;
+
+@Getter
+@ToString
+public class ChangeEvent {
+
+    private final long offset;
+    private final String entityType;
+    private final ChangeType changeType;
+    private final Long entityId;
+    private final Long fromId;
+    private final Long toId;
+    private final LocalDateTime createdAt;
+
+    public ChangeEvent(ChangeLog log) {
+        this.offset = log.getId();
+        this.entityType = log.getEntityType();
+        this.changeType = log.getChangeType();
+        this.entityId = log.getEntityId();
+        this.fromId = log.getFromId();
+        this.toId = log.getToId();
+        this.createdAt = log.getCreatedAt();
+    }
+
+    public boolean isBulk() {
+        return changeType == ChangeType.BULK_UPDATE || changeType == ChangeType.BULK_DELETE || changeType == ChangeType.BULK_UPSERT
+                || changeType == ChangeType.BULK_AGE_ADD;
+    }
+
+    /**
+     * 이 이벤트가 해당 id 의 행에 영향을 줄 수 있는지
+     * 벌크 DML 인데 범위가 없으면(대상 없음) false
+     */
+    public boolean covers(Long id) {
+        if (id == null) {
+            return false;
+        }
+        if (isBulk()) {
+            return fromId != null && fromId <= id && id <= toId;
+        }
+        return id.equals(entityId);
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.changelog;
+
+/**
+ * ChangeLogPublisher 가 offset 순서대로 이벤트를 전달한다.
+ * 같은 이름의 소비자는 재시작해도 마지막 offset 이후부터 이어받는다.
+ */
+public interface ChangeLogConsumer {
+
+    String consumerName();
+
+    /**
+     * 메모리 상태를 갖고 있어 인스턴스마다 모든 이벤트를 받아야 하는 소비자면 true.
+     * offset 을 인스턴스별로 따로 둔다. (consumerName@changelog.instance-id)
+     */
+    default boolean perInstance() {
+        return false;
+    }
+
+    void onChange(ChangeEvent event);
+}
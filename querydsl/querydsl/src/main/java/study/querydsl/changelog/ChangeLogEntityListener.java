@@ -0,0 +1,74 @@
+package study.querydsl.changelog;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.AbstractEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.HibernateEvents;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+
+/**
+ * Member / Team 엔티티 쓰기를 change_log 에 기록한다.
+ * 엔티티 클래스에 @EntityListeners 를 달지 않고 Hibernate 이벤트에 등록한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeLogEntityListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void register() {
+        HibernateEvents.register(emf, this, EventType.POST_INSERT, EventType.POST_UPDATE, EventType.POST_DELETE);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getEntity(), event.getId(), ChangeType.INSERT, event);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getEntity(), event.getId(), ChangeType.UPDATE, event);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getEntity(), event.getId(), ChangeType.DELETE, event);
+    }
+
+    private void record(Object entity, Serializable id, ChangeType changeType, AbstractEvent event) {
+        String entityType = entityType(entity);
+        if (entityType == null) {
+            return;
+        }
+        ChangeLogWriter.write(event.getSession(), entityType, changeType, (Long) id);
+    }
+
+    static String entityType(Object entity) {
+        if (entity instanceof Member) {
+            return Member.class.getSimpleName();
+        }
+        if (entity instanceof Team) {
+            return Team.class.getSimpleName();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,7 @@
+package study.querydsl.changelog;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.querydsl.entity.ChangeLogOffset;
+
+public interface ChangeLogOffsetRepository extends JpaRepository<ChangeLogOffset, String> {
+}
@@ -0,0 +1,167 @@
+package study.querydsl.changelog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.ChangeLog;
+import study.querydsl.entity.ChangeLogGap;
+import study.querydsl.entity.ChangeLogOffset;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * change_log 를 offset 순서대로 읽어 등록된 ChangeLogConsumer 에게 전달한다.
+ * 소비자별 offset 은 change_log_offset 에 저장되어 재시작 후에도 이어서 읽는다.
+ *
+ * IDENTITY id 는 insert 때 매겨지므로 작은 id 를 받은 트랜잭션이 더 늦게 커밋될 수 있다.
+ * 읽다가 건너뛴 id 는 길이와 상관없이 from~to 구간 하나로 남겨 두고 매번 다시 확인해서,
+ * 늦게 커밋된 이벤트도 (순서는 늦지만) 전달한다. 처음 읽는 소비자도 첫 id 아래 구간을 gap 으로 남긴다.
+ * gap-timeout 이 지나도 나타나지 않는 id 는 롤백된 것으로 보고 버린다.
+ *
+ * perInstance 소비자(메모리 캐시, 스냅샷 등)의 offset 은 인스턴스 id 를 붙여 저장한다.
+ * 이름 하나로 두면 먼저 읽은 인스턴스만 offset 을 전진시켜 나머지 인스턴스는 무효화를 놓친다.
+ * 인스턴스 id 는 changelog.instance-id 로 주고, 없으면 호스트 이름을 쓴다. (인스턴스끼리 겹치면 안 된다)
+ */
+@Slf4j
+@Component
+public class ChangeLogPublisher {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeLogOffsetRepository offsetRepository;
+    private final ObjectProvider<ChangeLogConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final String instanceId;
+
+    public ChangeLogPublisher(ChangeLogRepository changeLogRepository,
+                              ChangeLogOffsetRepository offsetRepository,
+                              ObjectProvider<ChangeLogConsumer> consumers,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${changelog.batch-size:500}") int batchSize,
+                              @Value("${changelog.gap-timeout-ms:300000}") long gapTimeoutMillis,
+                              @Value("${changelog.instance-id:}") String instanceId) {
+        this.changeLogRepository = changeLogRepository;
+        this.offsetRepository = offsetRepository;
+        this.consumers = consumers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.gapTimeout = Duration.ofMillis(gapTimeoutMillis);
+        this.instanceId = instanceId.isEmpty() ? hostName() : instanceId;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("changelog.instance-id 를 지정해야 한다.", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${changelog.poll-interval-ms:1000}")
+    public void publishPending() {
+        consumers.orderedStream().forEach(consumer -> {
+            try {
+                publish(consumer);
+            } catch (RuntimeException e) {
+                // 실패한 소비자는 offset 이 전진하지 않으므로 다음 주기에 다시 받는다.
+                log.warn("change log delivery failed. consumer={}", consumer.consumerName(), e);
+            }
+        });
+    }
+
+    /**
+     * 늦게 커밋된 gap 이벤트와 마지막 offset 이후 이벤트 한 배치를 전달하고, 전달한 건수를 반환한다.
+     */
+    public int publish(ChangeLogConsumer consumer) {
+        String offsetKey = offsetKey(consumer);
+        Integer delivered = transactionTemplate.execute(status -> {
+            ChangeLogOffset offset = offsetRepository.findById(offsetKey)
+                    .orElseGet(() -> offsetRepository.save(new ChangeLogOffset(offsetKey, 0L)));
+            LocalDateTime now = LocalDateTime.now();
+            int count = 0;
+
+            if (!offset.getGaps().isEmpty()) {
+                for (ChangeLogGap gap : new ArrayList<>(offset.getGaps())) {
+                    count += publishGap(consumer, offset, gap);
+                }
+                int expired = offset.expireGaps(now.minus(gapTimeout));
+                if (expired > 0) {
+                    log.info("change log gaps expired. consumer={}, count={}", offsetKey, expired);
+                }
+            }
+
+            List<ChangeLog> logs = changeLogRepository
+                    .findByIdGreaterThanOrderByIdAsc(offset.getLastOffset(), PageRequest.of(0, batchSize));
+            for (ChangeLog changeLog : logs) {
+                recordGaps(offset, changeLog.getId(), now);
+                consumer.onChange(new ChangeEvent(changeLog));
+                offset.moveTo(changeLog.getId());
+            }
+            return count + logs.size();
+        });
+        return delivered == null ? 0 : delivered;
+    }
+
+    /**
+     * gap 구간에서 그 사이 커밋된 이벤트를 한 배치만큼 전달하고, 남은 구간은 gap 으로 둔다.
+     */
+    private int publishGap(ChangeLogConsumer consumer, ChangeLogOffset offset, ChangeLogGap gap) {
+        List<ChangeLog> logs = changeLogRepository
+                .findByIdBetweenOrderByIdAsc(gap.getFromId(), gap.getToId(), PageRequest.of(0, batchSize));
+        if (logs.isEmpty()) {
+            return 0;
+        }
+        List<Long> committedIds = new ArrayList<>(logs.size());
+        for (ChangeLog changeLog : logs) {
+            consumer.onChange(new ChangeEvent(changeLog));
+            committedIds.add(changeLog.getId());
+        }
+        offset.fillGap(gap, committedIds);
+        return logs.size();
+    }
+
+    /**
+     * lastOffset 과 id 사이에 비어 있는 id 를 구간 하나로 gap 에 남긴다.
+     */
+    private static void recordGaps(ChangeLogOffset offset, long id, LocalDateTime now) {
+        long from = offset.getLastOffset() + 1;
+        if (from < id) {
+            offset.addGap(from, id - 1, now);
+        }
+    }
+
+    /**
+     * 소비자의 offset 을 지정한 위치로 옮긴다. (해당 offset 다음 이벤트부터 다시 받는다)
+     */
+    public void seek(ChangeLogConsumer consumer, long offset) {
+        String offsetKey = offsetKey(consumer);
+        transactionTemplate.executeWithoutResult(status ->
+                offsetRepository.findById(offsetKey)
+                        .orElseGet(() -> offsetRepository.save(new ChangeLogOffset(offsetKey, offset)))
+                        .seek(offset));
+    }
+
+    public long currentOffset(ChangeLogConsumer consumer) {
+        return offsetRepository.findById(offsetKey(consumer))
+                .map(ChangeLogOffset::getLastOffset)
+                .orElse(0L);
+    }
+
+    /**
+     * change_log_offset.consumer 에 저장하는 이름
+     */
+    public String offsetKey(ChangeLogConsumer consumer) {
+        return consumer.perInstance() ? consumer.consumerName() + "@" + instanceId : consumer.consumerName();
+    }
+}
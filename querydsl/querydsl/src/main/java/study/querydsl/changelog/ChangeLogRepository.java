@@ -0,0 +1,15 @@
+package study.querydsl.changelog;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.querydsl.entity.ChangeLog;
+
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLog, Long> {
+    // offset 이후의 이벤트를 순서대로 조회
+    List<ChangeLog> findByIdGreaterThanOrderByIdAsc(Long offset, Pageable pageable);
+
+    // 건너뛰었던 id 구간 중 그 사이 커밋된 이벤트
+    List<ChangeLog> findByIdBetweenOrderByIdAsc(Long fromId, Long toId, Pageable pageable);
+}
@@ -0,0 +1,89 @@
+package study.querydsl.changelog;
+
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * change_log 테이블에 현재 트랜잭션의 커넥션으로 바로 기록한다.
+ * flush 도중(엔티티 리스너)에도 호출되므로 영속성 컨텍스트를 거치지 않는다.
+ */
+public final class ChangeLogWriter {
+
+    private static final String INSERT_SQL =
+            "insert into change_log (entity_type, change_type, entity_id, from_id, to_id, created_at) values (?, ?, ?, ?, ?, ?)";
+
+    // 트랜잭션마다 기록한 엔티티 종류를 묶어 두는 리소스 키
+    private static final Object WRITTEN_KEY = new Object();
+
+    private ChangeLogWriter() {
+    }
+
+    /**
+     * 현재 트랜잭션에서 entityType 변경을 기록했는지 (커밋 전 변경이 있는지)
+     */
+    public static boolean writtenInTransaction(String entityType) {
+        @SuppressWarnings("unchecked")
+        Set<String> written = (Set<String>) TransactionSynchronizationManager.getResource(WRITTEN_KEY);
+        return written != null && written.contains(entityType);
+    }
+
+    public static void write(Session session, String entityType, ChangeType changeType, Long entityId) {
+        insert(session, entityType, changeType, entityId, null, null);
+    }
+
+    public static void writeRange(Session session, String entityType, ChangeType changeType, Long fromId, Long toId) {
+        insert(session, entityType, changeType, null, fromId, toId);
+    }
+
+    private static void insert(Session session, String entityType, ChangeType changeType,
+                               Long entityId, Long fromId, Long toId) {
+        markWritten(entityType);
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                ps.setString(1, entityType);
+                ps.setString(2, changeType.name());
+                setLong(ps, 3, entityId);
+                setLong(ps, 4, fromId);
+                setLong(ps, 5, toId);
+                ps.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void markWritten(String entityType) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> written = (Set<String>) TransactionSynchronizationManager.getResource(WRITTEN_KEY);
+        if (written == null) {
+            written = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(WRITTEN_KEY, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WRITTEN_KEY);
+                }
+            });
+        }
+        written.add(entityType);
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
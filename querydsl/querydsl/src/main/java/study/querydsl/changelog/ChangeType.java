@@ -0,0 +1,7 @@
+package study.querydsl.changelog;
+
+public enum ChangeType {
+    INSERT, UPDATE, DELETE, BULK_UPDATE, BULK_DELETE, BULK_UPSERT,
+    // 나이 증감만 있는 BULK_UPDATE. team_age_summary 는 같은 트랜잭션에서 이미 반영했다. (MemberAgeUpdateService)
+    BULK_AGE_ADD
+}
@@ -0,0 +1,48 @@
+package study.querydsl.condition;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 조건 클래스의 필드 하나 (@Eq, @Goe, @Loe, @In, @Prefix 중 하나가 붙은 필드)
+ */
+@Getter
+@ToString(of = {"name", "property", "kind"})
+public class ConditionField {
+
+    private final String name;
+    private final String property;
+    private final ConditionKind kind;
+    private final Field field;
+
+    ConditionField(Field field, String property, ConditionKind kind) {
+        this.name = field.getName();
+        this.property = property;
+        this.kind = kind;
+        this.field = field;
+        ReflectionUtils.makeAccessible(field);
+    }
+
+    /**
+     * 조건 값. 값이 없으면(null, 빈 문자열) null
+     * 목록은 복사본을 돌려준다. (빈 목록은 값이 있는 것으로 본다)
+     */
+    Object read(Object condition) {
+        Object value = ReflectionUtils.getField(field, condition);
+        if (value instanceof String && !hasText((String) value)) {
+            return null;
+        }
+        if (value instanceof Collection) {
+            return Collections.unmodifiableList(new ArrayList<>((Collection<?>) value));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,221 @@
+package study.querydsl.condition;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 조건 클래스의 애너테이션을 한 번만 읽어 두고(클래스별 캐시) 조건 값을 다룬다.
+ * - values : 값이 있는 필드만 (필드명 -> 값)
+ * - isContradictory : 같은 property 에 걸린 조건끼리 동시에 만족할 수 없는지 (ex. ageGoe > ageLoe)
+ * - matches : DB 없이 한 행의 값이 조건을 만족할 수 있는지
+ */
+public final class ConditionFields<C> {
+
+    private static final Map<Class<?>, ConditionFields<?>> CACHE = new ConcurrentHashMap<>();
+
+    private final List<ConditionField> fields;
+
+    private ConditionFields(List<ConditionField> fields) {
+        this.fields = fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <C> ConditionFields<C> of(Class<C> type) {
+        return (ConditionFields<C>) CACHE.computeIfAbsent(type, ConditionFields::introspect);
+    }
+
+    private static ConditionFields<?> introspect(Class<?> type) {
+        List<ConditionField> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                ConditionField conditionField = toConditionField(field);
+                if (conditionField != null) {
+                    fields.add(conditionField);
+                }
+            }
+        }
+        return new ConditionFields<>(Collections.unmodifiableList(fields));
+    }
+
+    private static ConditionField toConditionField(Field field) {
+        List<ConditionField> found = new ArrayList<>();
+        if (field.isAnnotationPresent(Eq.class)) {
+            found.add(new ConditionField(field, field.getAnnotation(Eq.class).value(), ConditionKind.EQ));
+        }
+        if (field.isAnnotationPresent(Goe.class)) {
+            found.add(new ConditionField(field, field.getAnnotation(Goe.class).value(), ConditionKind.GOE));
+        }
+        if (field.isAnnotationPresent(Loe.class)) {
+            found.add(new ConditionField(field, field.getAnnotation(Loe.class).value(), ConditionKind.LOE));
+        }
+        if (field.isAnnotationPresent(In.class)) {
+            if (!Collection.class.isAssignableFrom(field.getType())) {
+                throw new IllegalStateException("@In field must be a collection: " + field);
+            }
+            found.add(new ConditionField(field, field.getAnnotation(In.class).value(), ConditionKind.IN));
+        }
+        if (field.isAnnotationPresent(Prefix.class)) {
+            if (field.getType() != String.class) {
+                throw new IllegalStateException("@Prefix field must be a String: " + field);
+            }
+            found.add(new ConditionField(field, field.getAnnotation(Prefix.class).value(), ConditionKind.PREFIX));
+        }
+        if (found.size() > 1) {
+            throw new IllegalStateException("only one condition annotation is allowed: " + field);
+        }
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    public List<ConditionField> getFields() {
+        return fields;
+    }
+
+    public Map<String, Object> values(C condition) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (ConditionField field : fields) {
+            Object value = field.read(condition);
+            if (value != null) {
+                values.put(field.getName(), value);
+            }
+        }
+        return values;
+    }
+
+    public boolean isContradictory(C condition) {
+        return isContradictory(values(condition));
+    }
+
+    /**
+     * property 별로 조건을 모아 동시에 만족하는 값이 있을 수 없으면 true
+     */
+    public boolean isContradictory(Map<String, Object> values) {
+        Map<String, Bounds> byProperty = new HashMap<>();
+        for (ConditionField field : fields) {
+            Object value = values.get(field.getName());
+            if (value != null) {
+                byProperty.computeIfAbsent(field.getProperty(), p -> new Bounds()).add(field.getKind(), value);
+            }
+        }
+        return byProperty.values().stream().anyMatch(Bounds::isEmpty);
+    }
+
+    /**
+     * row 의 값(property -> 값)이 조건을 만족할 수 있는지.
+     * row 에 없는 property 의 조건은 알 수 없으므로 만족할 수 있다고 본다.
+     */
+    public boolean matches(Map<String, Object> values, Map<String, Object> row) {
+        for (ConditionField field : fields) {
+            Object value = values.get(field.getName());
+            if (value == null || !row.containsKey(field.getProperty())) {
+                continue;
+            }
+            if (!test(field.getKind(), value, row.get(field.getProperty()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean test(ConditionKind kind, Object condition, Object actual) {
+        if (actual == null) {
+            // SQL 과 같이 null 은 어떤 비교도 만족하지 않는다.
+            return false;
+        }
+        switch (kind) {
+            case EQ:
+                return condition.equals(actual);
+            case GOE:
+                return ((Comparable) actual).compareTo(condition) >= 0;
+            case LOE:
+                return ((Comparable) actual).compareTo(condition) <= 0;
+            case IN:
+                return ((Collection<?>) condition).contains(actual);
+            case PREFIX:
+                return actual.toString().startsWith((String) condition);
+            default:
+                throw new IllegalStateException("unknown kind: " + kind);
+        }
+    }
+
+    /**
+     * property 하나에 걸린 조건들
+     */
+    private static class Bounds {
+        private final List<Object> eqs = new ArrayList<>();
+        private final List<Object> goes = new ArrayList<>();
+        private final List<Object> loes = new ArrayList<>();
+        private final List<Collection<?>> ins = new ArrayList<>();
+        private final List<String> prefixes = new ArrayList<>();
+
+        private void add(ConditionKind kind, Object value) {
+            switch (kind) {
+                case EQ:
+                    eqs.add(value);
+                    break;
+                case GOE:
+                    goes.add(value);
+                    break;
+                case LOE:
+                    loes.add(value);
+                    break;
+                case IN:
+                    ins.add((Collection<?>) value);
+                    break;
+                case PREFIX:
+                    prefixes.add((String) value);
+                    break;
+                default:
+                    throw new IllegalStateException("unknown kind: " + kind);
+            }
+        }
+
+        /**
+         * 만족하는 값이 하나도 없으면 true
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private boolean isEmpty() {
+            for (Object goe : goes) {
+                for (Object loe : loes) {
+                    if (((Comparable) goe).compareTo(loe) > 0) {
+                        return true;
+                    }
+                }
+            }
+            for (String a : prefixes) {
+                for (String b : prefixes) {
+                    if (!a.startsWith(b) && !b.startsWith(a)) {
+                        return true;
+                    }
+                }
+            }
+            // 값이 정해지면(eq, in) 그 값이 나머지 조건을 모두 만족하는지 본다.
+            if (!eqs.isEmpty()) {
+                return eqs.stream().distinct().count() > 1 || !satisfiesAll(eqs.get(0));
+            }
+            if (!ins.isEmpty()) {
+                return ins.get(0).stream().filter(Objects::nonNull).noneMatch(this::satisfiesAll);
+            }
+            return false;
+        }
+
+        private boolean satisfiesAll(Object candidate) {
+            return goes.stream().allMatch(goe -> test(ConditionKind.GOE, goe, candidate))
+                    && loes.stream().allMatch(loe -> test(ConditionKind.LOE, loe, candidate))
+                    && ins.stream().allMatch(in -> test(ConditionKind.IN, in, candidate))
+                    && prefixes.stream().allMatch(prefix -> test(ConditionKind.PREFIX, prefix, candidate));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package study.querydsl.condition;
+
+/**
+ * 조건 필드 애너테이션 종류
+ */
+public enum ConditionKind {
+    EQ, GOE, LOE, IN, PREFIX
+}
@@ -0,0 +1,98 @@
+package study.querydsl.condition;
+
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 조건 클래스의 애너테이션(@Eq, @Goe, @Loe, @In, @Prefix)을 Querydsl 조건식으로 바꾼다.
+ * property 이름에 경로를 연결해 두므로 같은 조건 클래스를 JPA(QMember), 보관 테이블(QMemberArchive),
+ * Querydsl SQL(SMember) 에서 같이 쓴다.
+ *
+ * 필드를 더 추가할 때는 조건 클래스에 애너테이션만 달고, 새 property 면 경로만 등록하면 된다.
+ */
+public final class ConditionPredicates<C> {
+
+    private final ConditionFields<C> conditionFields;
+    private final Map<String, Expression<?>> paths;
+    private final Set<String> excluded;
+
+    private ConditionPredicates(ConditionFields<C> conditionFields, Map<String, Expression<?>> paths, Set<String> excluded) {
+        this.conditionFields = conditionFields;
+        this.paths = paths;
+        this.excluded = excluded;
+    }
+
+    /**
+     * 조건 클래스의 모든 property 에 경로가 있어야 한다.
+     */
+    public static <C> ConditionPredicates<C> of(Class<C> type, Map<String, ? extends Expression<?>> paths) {
+        ConditionFields<C> conditionFields = ConditionFields.of(type);
+        for (ConditionField field : conditionFields.getFields()) {
+            if (!paths.containsKey(field.getProperty())) {
+                throw new IllegalArgumentException("no path for property '" + field.getProperty() + "' of " + field);
+            }
+        }
+        return new ConditionPredicates<>(conditionFields, new HashMap<>(paths), Collections.emptySet());
+    }
+
+    /**
+     * properties 조건을 빼고 만든다. (ex. 팀 id 로 이미 좁혀서 팀명 조건이 필요 없을 때)
+     */
+    public ConditionPredicates<C> except(String... properties) {
+        Set<String> merged = new HashSet<>(excluded);
+        merged.addAll(Arrays.asList(properties));
+        return new ConditionPredicates<>(conditionFields, paths, merged);
+    }
+
+    public boolean isContradictory(C condition) {
+        return conditionFields.isContradictory(condition);
+    }
+
+    /**
+     * 값이 있는 필드의 조건식 (where 절에 그대로 넘긴다)
+     */
+    public Predicate[] toPredicates(C condition) {
+        List<Predicate> predicates = new ArrayList<>();
+        for (ConditionField field : conditionFields.getFields()) {
+            if (excluded.contains(field.getProperty())) {
+                continue;
+            }
+            Object value = field.read(condition);
+            if (value != null) {
+                predicates.add(toPredicate(field.getKind(), paths.get(field.getProperty()), value));
+            }
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate toPredicate(ConditionKind kind, Expression<?> path, Object value) {
+        switch (kind) {
+            case EQ:
+                return ExpressionUtils.predicate(Ops.EQ, path, ConstantImpl.create(value));
+            case GOE:
+                return ExpressionUtils.predicate(Ops.GOE, path, ConstantImpl.create(value));
+            case LOE:
+                return ExpressionUtils.predicate(Ops.LOE, path, ConstantImpl.create(value));
+            case IN:
+                return ExpressionUtils.in((Expression<Object>) path, (Collection<Object>) value);
+            case PREFIX:
+                return ExpressionUtils.predicate(Ops.STARTS_WITH, path, ConstantImpl.create(value));
+            default:
+                throw new IllegalStateException("unknown kind: " + kind);
+        }
+    }
+}
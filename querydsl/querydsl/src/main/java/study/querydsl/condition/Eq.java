@@ -0,0 +1,16 @@
+package study.querydsl.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 조건 필드 : 같다 (property = value)
+ * value 는 ConditionPredicates 에 등록한 property 이름
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Eq {
+    String value();
+}
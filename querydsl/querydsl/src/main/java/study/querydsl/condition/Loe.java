@@ -0,0 +1,16 @@
+package study.querydsl.condition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 조건 필드 : 작거나 같다 (property <= value). 같은 property 의 @Goe 와 함께 범위가 된다.
+ * value 는 ConditionPredicates 에 등록한 property 이름
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Loe {
+    String value();
+}
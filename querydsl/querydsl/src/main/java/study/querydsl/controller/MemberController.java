@@ -0,0 +1,105 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.cache.CachedMemberSearch;
+import study.querydsl.dto.MemberField;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.planner.MemberPageService;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.snapshot.MemberLookupService;
+import study.querydsl.timeout.CancellableSearch;
+import study.querydsl.wire.MemberStreamService;
+import study.querydsl.wire.MemberWireFormat;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberController {
+
+    private final MemberRepository memberRepository;
+    private final CachedMemberSearch cachedMemberSearch;
+    private final MemberPageService memberPageService;
+    private final CancellableSearch cancellableSearch;
+    private final MemberStreamService memberStreamService;
+    private final MemberLookupService memberLookupService;
+
+    /**
+     * fields 를 주면 해당 필드만 조회한다. 예) /v1/members?fields=username,age&ageGoe=20
+     */
+    @GetMapping("/v1/members")
+    public WebAsyncTask<List<?>> searchMemberV1(MemberSearchCondition condition,
+                                                @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            return cancellableSearch.submit(() -> cachedMemberSearch.search(condition));
+        }
+        Set<MemberField> selected = parseFields(fields);
+        return cancellableSearch.submit(() -> memberRepository.searchFields(condition, selected));
+    }
+
+    /**
+     * 회원 단건 조회 (스냅샷이 최신이면 DB 를 거치지 않는다. MemberLookupService)
+     */
+    @GetMapping("/v1/members/{id}")
+    public ResponseEntity<MemberTeamDto> findMember(@PathVariable long id) {
+        return ResponseEntity.of(memberLookupService.findById(id));
+    }
+
+    /**
+     * Accept: application/x-member-block 이면 결과를 리스트로 모으지 않고 커서에서 바로 내려보낸다. (MemberWireFormat)
+     */
+    @GetMapping(value = "/v1/members", produces = MemberWireFormat.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> searchMemberV1Binary(MemberSearchCondition condition) {
+        return ResponseEntity.ok()
+                .contentType(MemberWireFormat.MEDIA_TYPE)
+                .body(out -> memberStreamService.writeBlocks(condition, out));
+    }
+
+    @GetMapping("/v2/members")
+    public WebAsyncTask<Page<MemberTeamDto>> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+        return cancellableSearch.submit(() -> memberRepository.searchPageSimple(condition, pageable));
+    }
+
+    /**
+     * estimate=true 면 넓은 검색의 전체 건수를 count 쿼리 없이 추정한다. (MemberPageService)
+     */
+    @GetMapping("/v3/members")
+    public WebAsyncTask<Page<MemberTeamDto>> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                                            @RequestParam(defaultValue = "false") boolean estimate) {
+        if (estimate) {
+            return cancellableSearch.submit(() -> memberPageService.searchPageEstimated(condition, pageable));
+        }
+        return cancellableSearch.submit(() -> cachedMemberSearch.searchPage(condition, pageable));
+    }
+
+    /**
+     * 쿼리 제한 시간(QueryTimeouts)을 넘겼거나 취소된 검색
+     */
+    @ExceptionHandler({QueryTimeoutException.class, javax.persistence.QueryTimeoutException.class})
+    public ResponseEntity<Void> queryTimeout() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    private Set<MemberField> parseFields(String fields) {
+        try {
+            return MemberField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package study.querydsl.dialect;
+
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+
+import java.util.Locale;
+
+/**
+ * MemberH2Dialect 에 등록한 함수의 Querydsl 식.
+ * JPQL 은 function('이름', ...) 으로, Querydsl SQL(reactive, shard) 은 같은 SQL 을 직접 쓴다.
+ */
+public final class MemberFunctions {
+
+    private MemberFunctions() {
+    }
+
+    public static StringExpression normalize(StringExpression username) {
+        return Expressions.stringTemplate("function('normalize_name', {0})", username);
+    }
+
+    public static StringExpression normalizeSql(StringExpression username) {
+        return Expressions.stringTemplate("lower(trim({0}))", username);
+    }
+
+    /**
+     * 나이 구간의 시작값 (size=10 이면 0, 10, 20, ...)
+     * size 는 SQL 에 상수로 넣는다. 파라미터로 바인딩하면 select 와 group by 의 식이 달라져 그룹핑할 수 없다.
+     */
+    public static NumberExpression<Integer> ageBucket(NumberExpression<Integer> age, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("bucket size must be positive: " + size);
+        }
+        return Expressions.numberTemplate(Integer.class, "function('age_bucket', {0}, " + size + ")", age);
+    }
+
+    /**
+     * normalize_name 과 같은 규칙의 자바 버전 (조건 값에 적용)
+     */
+    public static String normalize(String username) {
+        return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.dialect;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * 회원 검색에서 쓰는 SQL 함수를 JPQL 에 등록한 H2 방언. (Querydsl 에서는 MemberFunctions 로 쓴다)
+ *
+ * 함수는 SQL 로 그대로 펼쳐지므로 필터/그룹핑이 DB 에서 실행된다.
+ * 식 인덱스를 지원하는 DB 라면 같은 식(lower(trim(username)) 등)으로 인덱스를 만들어 태울 수 있다.
+ */
+public class MemberH2Dialect extends H2Dialect {
+
+    public MemberH2Dialect() {
+        super();
+        // 앞뒤 공백을 지우고 소문자로 (lower 는 H2Dialect 에 이미 있다)
+        registerFunction("normalize_name", new SQLFunctionTemplate(StandardBasicTypes.STRING, "lower(trim(?1))"));
+        // 나이를 size 단위 구간의 시작값으로 (정수 나눗셈)
+        registerFunction("age_bucket", new SQLFunctionTemplate(StandardBasicTypes.INTEGER, "(?1 / ?2 * ?2)"));
+    }
+}
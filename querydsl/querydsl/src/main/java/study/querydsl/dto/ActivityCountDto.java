@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 회원(또는 팀)별 활동 이벤트 수 (id: 회원 id 또는 팀 id)
+ */
+@Data
+public class ActivityCountDto {
+
+    private Long id;
+    private long count;
+
+    public ActivityCountDto(Long id, long count) {
+        this.id = id;
+        this.count = count;
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 나이 구간별 회원 수 (bucket: 구간 시작 나이)
+ */
+@Data
+public class AgeBucketDto {
+
+    private int bucket;
+    private long count;
+
+    public AgeBucketDto(int bucket, long count) {
+        this.bucket = bucket;
+        this.count = count;
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.dto;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * 전체 건수가 추정값일 수 있는 페이지.
+ * totalExact 가 false 면 totalElements 는 추정값이고, 상한을 넘으면 totalLabel 이 "10,000+" 형태가 된다.
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+    private final String totalLabel;
+
+    public EstimatedPage(Page<T> page, boolean totalExact, long cap) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+        this.totalExact = totalExact;
+        if (!totalExact && page.getTotalElements() >= cap) {
+            this.totalLabel = NumberFormat.getIntegerInstance(Locale.US).format(cap) + "+";
+        } else {
+            this.totalLabel = NumberFormat.getIntegerInstance(Locale.US).format(page.getTotalElements());
+        }
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public String getTotalLabel() {
+        return totalLabel;
+    }
+}
@@ -0,0 +1,75 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.types.Expression;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberArchive.memberArchive;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 결과에서 골라 받을 수 있는 필드 (MemberTeamDto 의 필드명과 같다)
+ */
+public enum MemberField {
+
+    MEMBER_ID("memberId", member.id, memberArchive.id, false),
+    USERNAME("username", member.username, memberArchive.username, false),
+    AGE("age", member.age, memberArchive.age, false),
+    // 외래키 컬럼이라 team 조인 없이 가져온다.
+    TEAM_ID("teamId", member.team.id, memberArchive.teamId, false),
+    TEAM_NAME("teamName", team.name, team.name, true);
+
+    private final String fieldName;
+    private final Expression<?> path;
+    // member_archive 를 조회할 때 쓰는 경로
+    private final Expression<?> archivePath;
+    private final boolean teamJoin;
+
+    MemberField(String fieldName, Expression<?> path, Expression<?> archivePath, boolean teamJoin) {
+        this.fieldName = fieldName;
+        this.path = path;
+        this.archivePath = archivePath;
+        this.teamJoin = teamJoin;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Expression<?> getPath() {
+        return path;
+    }
+
+    public Expression<?> getArchivePath() {
+        return archivePath;
+    }
+
+    public boolean isTeamJoin() {
+        return teamJoin;
+    }
+
+    /**
+     * "username,age" 형태를 파싱한다. 비어있으면 전체 필드
+     */
+    public static Set<MemberField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(MemberField.class);
+        }
+        Set<MemberField> result = EnumSet.noneOf(MemberField.class);
+        for (String name : fields.split(",")) {
+            result.add(of(name.trim()));
+        }
+        return result;
+    }
+
+    public static MemberField of(String fieldName) {
+        for (MemberField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("unknown member field: " + fieldName);
+    }
+}
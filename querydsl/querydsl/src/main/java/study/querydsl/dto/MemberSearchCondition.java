@@ -1,16 +1,43 @@
 package study.querydsl.dto;
 
 import lombok.Data;
+import study.querydsl.condition.Eq;
+import study.querydsl.condition.Goe;
+import study.querydsl.condition.In;
+import study.querydsl.condition.Loe;
+import study.querydsl.condition.Prefix;
+import study.querydsl.dialect.MemberFunctions;
+
+import java.util.List;
 
 @Data
 public class MemberSearchCondition {
     // 회원명, 팀명, 나이(ageGoe, ageLoe)
+    // 조건식은 애너테이션으로 만든다. (ConditionPredicates)
 
-
+    @Eq("username")
     private String username;
+    @Eq("teamName")
     private String teamName;
+    @Goe("age")
     private Integer ageGoe;
+    @Loe("age")
     private Integer ageLoe;
 
+    // 회원명 접두어, 팀 id 목록
+    @Prefix("username")
+    private String usernamePrefix;
+    @In("teamId")
+    private List<Long> teamIds;
+
+    // 앞뒤 공백, 대소문자를 무시한 회원명 (DB 에서 normalize_name(username) 과 비교)
+    @Eq("normalizedUsername")
+    private String usernameNormalized;
+
+    // true 면 보관(member_archive)된 회원도 함께 조회
+    private boolean includeArchived;
 
+    public void setUsernameNormalized(String usernameNormalized) {
+        this.usernameNormalized = MemberFunctions.normalize(usernameNormalized);
+    }
 }
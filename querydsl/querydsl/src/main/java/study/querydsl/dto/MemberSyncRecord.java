@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 상위 시스템에서 받은 회원 한 건 (externalId 는 상위 시스템이 정한 키, member.external_id 에 저장된다)
+ */
+@Data
+@NoArgsConstructor
+public class MemberSyncRecord {
+
+    private Long externalId;
+    private String username;
+    private int age;
+    private Long teamId;
+
+    public MemberSyncRecord(Long externalId, String username, int age, Long teamId) {
+        this.externalId = externalId;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 일괄 upsert 결과 건수
+ */
+@Getter
+@ToString
+public class UpsertResult {
+
+    private final long inserted;
+    private final long updated;
+    private final long unchanged;
+
+    public UpsertResult(long inserted, long updated, long unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+}
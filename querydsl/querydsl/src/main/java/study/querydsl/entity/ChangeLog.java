@@ -0,0 +1,46 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import study.querydsl.changelog.ChangeType;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * Member / Team 변경 이력 (outbox)
+ * id 가 곧 소비자의 offset 이다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class ChangeLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_log_id")
+    private Long id;
+
+    private String entityType;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    // 단건 변경일 때의 엔티티 id
+    private Long entityId;
+
+    // 벌크 DML 일 때 영향을 받은 id 범위
+    private Long fromId;
+    private Long toId;
+
+    private LocalDateTime createdAt;
+}
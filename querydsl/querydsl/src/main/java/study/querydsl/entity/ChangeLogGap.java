@@ -0,0 +1,35 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+/**
+ * 소비자가 건너뛴 change_log id 구간 (fromId ~ toId, 양 끝 포함)
+ * 아직 커밋되지 않았거나 롤백된 트랜잭션이 받은 id 이다.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChangeLogGap {
+
+    @Column(name = "from_id", nullable = false)
+    private long fromId;
+
+    @Column(name = "to_id", nullable = false)
+    private long toId;
+
+    // 처음 발견한 시각 (구간을 나눠도 유지한다)
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+
+    public ChangeLogGap(long fromId, long toId, LocalDateTime detectedAt) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.detectedAt = detectedAt;
+    }
+}
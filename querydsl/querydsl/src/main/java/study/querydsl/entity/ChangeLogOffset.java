@@ -0,0 +1,86 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 소비자별로 마지막으로 처리한 ChangeLog id
+ * id 는 커밋 순서가 아니라 insert 순서로 매겨지므로, 건너뛴 id 구간은 gaps 에 두었다가 나중에 커밋되면 전달한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChangeLogOffset {
+
+    @Id
+    private String consumer;
+
+    private long lastOffset;
+
+    // lastOffset 아래에서 아직 보이지 않은 id 구간
+    @ElementCollection
+    @CollectionTable(name = "change_log_gap_range", joinColumns = @JoinColumn(name = "consumer"))
+    private List<ChangeLogGap> gaps = new ArrayList<>();
+
+    public ChangeLogOffset(String consumer, long lastOffset) {
+        this.consumer = consumer;
+        this.lastOffset = lastOffset;
+    }
+
+    public void moveTo(long offset) {
+        this.lastOffset = offset;
+    }
+
+    public List<ChangeLogGap> getGaps() {
+        return Collections.unmodifiableList(gaps);
+    }
+
+    public void addGap(long fromId, long toId, LocalDateTime detectedAt) {
+        gaps.add(new ChangeLogGap(fromId, toId, detectedAt));
+    }
+
+    /**
+     * gap 구간에서 커밋된 id(오름차순)를 빼고, 아직 보이지 않은 나머지 구간만 남긴다.
+     */
+    public void fillGap(ChangeLogGap gap, List<Long> committedIds) {
+        gaps.remove(gap);
+        long next = gap.getFromId();
+        for (long id : committedIds) {
+            if (id > next) {
+                gaps.add(new ChangeLogGap(next, id - 1, gap.getDetectedAt()));
+            }
+            next = id + 1;
+        }
+        if (next <= gap.getToId()) {
+            gaps.add(new ChangeLogGap(next, gap.getToId(), gap.getDetectedAt()));
+        }
+    }
+
+    /**
+     * detectedBefore 이전에 발견한 gap 을 버린다. (롤백된 트랜잭션의 id 는 끝내 나타나지 않는다)
+     */
+    public int expireGaps(LocalDateTime detectedBefore) {
+        int before = gaps.size();
+        gaps.removeIf(gap -> gap.getDetectedAt().isBefore(detectedBefore));
+        return before - gaps.size();
+    }
+
+    /**
+     * offset 을 옮기면 그 아래 gap 은 의미가 없어진다.
+     */
+    public void seek(long offset) {
+        this.lastOffset = offset;
+        gaps.clear();
+    }
+}
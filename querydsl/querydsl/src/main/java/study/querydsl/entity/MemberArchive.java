@@ -0,0 +1,34 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * member 에서 옮겨온 보관 회원
+ * member_id 는 원래 값을 그대로 쓰고, team 은 연관관계 없이 id 만 남긴다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberArchive {
+
+    @Id
+    @Column(name = "member_id")
+    private Long id;
+
+    private String username;
+    private int age;
+
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private LocalDateTime archivedAt;
+}
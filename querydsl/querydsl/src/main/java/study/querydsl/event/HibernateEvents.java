@@ -0,0 +1,49 @@
+package study.querydsl.event;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+
+/**
+ * 엔티티 클래스에 @EntityListeners 를 달지 않고 Hibernate 이벤트에 리스너를 붙일 때 쓰는 도우미.
+ */
+public final class HibernateEvents {
+
+    private HibernateEvents() {
+    }
+
+    /**
+     * listener 를 types 이벤트마다 등록한다. listener 는 각 이벤트의 리스너 인터페이스를 구현해야 한다.
+     */
+    @SuppressWarnings("unchecked")
+    public static void register(EntityManagerFactory emf, Object listener, EventType<?>... types) {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        for (EventType<?> type : types) {
+            if (!type.baseListenerInterface().isInstance(listener)) {
+                throw new IllegalArgumentException(listener.getClass().getName() + " does not implement "
+                        + type.baseListenerInterface().getName());
+            }
+            registry.appendListeners((EventType<Object>) type, listener);
+        }
+    }
+
+    /**
+     * Member 이벤트 상태(state)에서 팀 id. 프록시(지연 로딩)면 초기화하지 않고 id 만 꺼낸다.
+     */
+    public static Long memberTeamId(Object[] state, EntityPersister persister, EventSource session) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        if (team == null) {
+            return null;
+        }
+        Serializable id = session.getContextEntityIdentifier(team);
+        return id != null ? (Long) id : ((Team) team).getId();
+    }
+}
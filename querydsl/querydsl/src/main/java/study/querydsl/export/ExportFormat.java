@@ -0,0 +1,87 @@
+package study.querydsl.export;
+
+import study.querydsl.dto.MemberTeamDto;
+
+public enum ExportFormat {
+
+    CSV("csv") {
+        @Override
+        public String header() {
+            return "memberId,username,age,teamId,teamName\n";
+        }
+
+        @Override
+        public String line(MemberTeamDto dto) {
+            return dto.getMemberId() + "," + csv(dto.getUsername()) + "," + dto.getAge() + ","
+                    + nullToEmpty(dto.getTeamId()) + "," + csv(dto.getTeamName()) + "\n";
+        }
+    },
+
+    NDJSON("ndjson") {
+        @Override
+        public String header() {
+            return "";
+        }
+
+        @Override
+        public String line(MemberTeamDto dto) {
+            return "{\"memberId\":" + dto.getMemberId()
+                    + ",\"username\":" + json(dto.getUsername())
+                    + ",\"age\":" + dto.getAge()
+                    + ",\"teamId\":" + dto.getTeamId()
+                    + ",\"teamName\":" + json(dto.getTeamName()) + "}\n";
+        }
+    };
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract String header();
+
+    public abstract String line(MemberTeamDto dto);
+
+    private static String nullToEmpty(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
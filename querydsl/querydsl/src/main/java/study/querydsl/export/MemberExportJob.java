@@ -0,0 +1,222 @@
+package study.querydsl.export;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * member.id 를 구간으로 나눠 구간별로 MemberTeamDto 를 조회/기록한 뒤 하나의 파일로 합친다.
+ * 구간마다 별도의 읽기 전용 트랜잭션(=커넥션)을 쓰므로 병렬도는 커넥션 풀 크기를 넘지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberExportJob {
+
+    // 한 번에 가져오는 행 수 (구간 내부는 id 기준으로 이어서 조회)
+    private static final int CHUNK_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // 구간이 한쪽으로 몰려도 스레드가 놀지 않도록 병렬도보다 잘게 나눈다.
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final MemberRepository memberRepository;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+    private final int parallelism;
+    private final String exportDir;
+
+    public MemberExportJob(MemberRepository memberRepository,
+                           EntityManager em,
+                           PlatformTransactionManager transactionManager,
+                           DataSource dataSource,
+                           @Value("${export.parallelism:0}") int parallelism,
+                           @Value("${export.dir:export}") String exportDir) {
+        this.memberRepository = memberRepository;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.parallelism = parallelism > 0 ? parallelism : defaultParallelism(dataSource);
+        this.exportDir = exportDir;
+    }
+
+    private static int defaultParallelism(DataSource dataSource) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (dataSource instanceof HikariDataSource) {
+            // 다른 요청이 쓸 커넥션 하나는 남겨둔다.
+            int pool = ((HikariDataSource) dataSource).getMaximumPoolSize() - 1;
+            return Math.max(1, Math.min(cores, pool));
+        }
+        return cores;
+    }
+
+    @Scheduled(cron = "${export.cron:-}")
+    public void nightlyExport() {
+        Path target = Paths.get(exportDir, "members-" + LocalDate.now() + "." + ExportFormat.CSV.getExtension());
+        export(target, ExportFormat.CSV);
+    }
+
+    /**
+     * 전체 회원을 target 파일로 내보내고, 기록한 행 수를 반환한다.
+     */
+    public long export(Path target, ExportFormat format) {
+        long start = System.currentTimeMillis();
+        Tuple bounds = readOnlyTx.execute(status -> queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .fetchOne());
+        Long minId = bounds == null ? null : bounds.get(member.id.min());
+        Long maxId = bounds == null ? null : bounds.get(member.id.max());
+
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path workDir = Files.createTempDirectory(parent, "export-");
+            try {
+                List<long[]> ranges = minId == null
+                        ? new ArrayList<>()
+                        : partition(minId, maxId, parallelism * PARTITIONS_PER_THREAD);
+                List<Path> parts = new ArrayList<>();
+                for (int i = 0; i < ranges.size(); i++) {
+                    parts.add(workDir.resolve(String.format("part-%05d", i)));
+                }
+                long rows = exportPartitions(ranges, parts, format);
+                concat(target, format, parts);
+                log.info("member export done. rows={}, partitions={}, parallelism={}, elapsed={}ms",
+                        rows, parts.size(), parallelism, System.currentTimeMillis() - start);
+                return rows;
+            } finally {
+                deleteQuietly(workDir);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [minId, maxId] 를 count 개 이하의 연속 구간으로 나눈다.
+     */
+    static List<long[]> partition(long minId, long maxId, int count) {
+        long span = maxId - minId + 1;
+        long size = Math.max(1, (span + count - 1) / count);
+        List<long[]> ranges = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += size) {
+            ranges.add(new long[]{from, Math.min(maxId, from + size - 1)});
+        }
+        return ranges;
+    }
+
+    private long exportPartitions(List<long[]> ranges, List<Path> parts, ExportFormat format) throws IOException {
+        if (ranges.isEmpty()) {
+            return 0;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, ranges.size()));
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                Path part = parts.get(i);
+                futures.add(executor.submit(() -> exportPartition(range[0], range[1], part, format)));
+            }
+            long rows = 0;
+            for (Future<Long> future : futures) {
+                rows += future.get();
+            }
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("member export interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("member export failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long exportPartition(long fromId, long toId, Path part, ExportFormat format) throws IOException {
+        try (ChannelWriter writer = new ChannelWriter(part, BUFFER_SIZE)) {
+            Long rows = readOnlyTx.execute(status -> {
+                long count = 0;
+                long cursor = fromId;
+                while (cursor <= toId) {
+                    List<MemberTeamDto> chunk = memberRepository.searchByIdRange(cursor, toId, CHUNK_SIZE);
+                    for (MemberTeamDto dto : chunk) {
+                        write(writer, format.line(dto));
+                    }
+                    count += chunk.size();
+                    if (chunk.size() < CHUNK_SIZE) {
+                        break;
+                    }
+                    cursor = chunk.get(chunk.size() - 1).getMemberId() + 1;
+                }
+                return count;
+            });
+            return rows == null ? 0 : rows;
+        }
+    }
+
+    private static void write(ChannelWriter writer, String line) {
+        try {
+            writer.write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void concat(Path target, ExportFormat format, List<Path> parts) throws IOException {
+        try (ChannelWriter header = new ChannelWriter(target, BUFFER_SIZE)) {
+            header.write(format.header());
+        }
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.warn("failed to delete export work dir {}", dir, e);
+        }
+    }
+}
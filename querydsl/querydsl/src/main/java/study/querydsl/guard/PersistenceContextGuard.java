@@ -0,0 +1,140 @@
+package study.querydsl.guard;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.event.HibernateEvents;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 영속성 컨텍스트(1차 캐시)에 쌓인 엔티티 수를 지켜본다.
+ *
+ * - 엔티티가 로드/persist 될 때마다 개수를 보고, 트랜잭션 안에서 warn-threshold 의 배수를 처음 넘을 때 경고 로그와
+ *   persistence.context.warnings 지표를 남긴다. (경고 시에만 엔티티 종류별 개수를 센다)
+ * - flush 때마다 개수를 persistence.context.size 에 기록한다.
+ * - 대량 작업은 단위 작업마다 checkpoint 를 불러 clear-threshold 를 넘으면 flush + clear 한다.
+ */
+@Slf4j
+@Component
+public class PersistenceContextGuard implements PostLoadEventListener, PersistEventListener, FlushEventListener {
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+    private final int clearThreshold;
+
+    public PersistenceContextGuard(EntityManagerFactory emf,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${persistence-guard.warn-threshold:10000}") int warnThreshold,
+                                   @Value("${persistence-guard.clear-threshold:1000}") int clearThreshold) {
+        this.emf = emf;
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+        this.clearThreshold = clearThreshold;
+    }
+
+    @PostConstruct
+    public void register() {
+        HibernateEvents.register(emf, this, EventType.POST_LOAD, EventType.PERSIST, EventType.FLUSH);
+    }
+
+    /**
+     * 대량 작업의 단위 작업 사이에서 부른다. 관리 중인 엔티티가 clear-threshold 이상이면 flush + clear 하고 true.
+     * clear 후에는 이전에 잡아 둔 엔티티가 준영속이 되므로, true 면 계속 쓸 엔티티를 다시 조회(getReference)해야 한다.
+     */
+    public boolean checkpoint(EntityManager em) {
+        int size = managedEntityCount(em);
+        if (size < clearThreshold) {
+            return false;
+        }
+        em.flush();
+        em.clear();
+        meterRegistry.counter("persistence.context.clears").increment();
+        log.debug("persistence context flushed and cleared at {} entities", size);
+        return true;
+    }
+
+    public int managedEntityCount(EntityManager em) {
+        return count(em.unwrap(SessionImplementor.class));
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        check(event.getSession());
+    }
+
+    @Override
+    public void onPersist(PersistEvent event) {
+        check(event.getSession());
+    }
+
+    @Override
+    public void onPersist(PersistEvent event, Map createdAlready) {
+        check(event.getSession());
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        meterRegistry.summary("persistence.context.size").record(count(event.getSession()));
+    }
+
+    private void check(SharedSessionContractImplementor session) {
+        int size = count(session);
+        if (size < warnThreshold || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionState state = (TransactionState) TransactionSynchronizationManager.getResource(this);
+        if (state == null) {
+            state = new TransactionState();
+            TransactionSynchronizationManager.bindResource(this, state);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PersistenceContextGuard.this);
+                }
+            });
+        }
+
+        int level = size / warnThreshold;
+        if (level > state.warnedLevel) {
+            state.warnedLevel = level;
+            meterRegistry.counter("persistence.context.warnings").increment();
+            log.warn("persistence context holds {} entities in transaction {}: {}",
+                    size, TransactionSynchronizationManager.getCurrentTransactionName(), countByEntity(session));
+        }
+    }
+
+    private static int count(SharedSessionContractImplementor session) {
+        return session.getPersistenceContextInternal().getNumberOfManagedEntities();
+    }
+
+    private static Map<String, Integer> countByEntity(SharedSessionContractImplementor session) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Object key : session.getPersistenceContextInternal().getEntitiesByKey().keySet()) {
+            counts.merge(((EntityKey) key).getEntityName(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static class TransactionState {
+        private int warnedLevel;
+    }
+}
@@ -1,16 +1,23 @@
 package study.querydsl;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.guard.PersistenceContextGuard;
 
-import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+@Slf4j
 @Profile("local")
 @Component
 @RequiredArgsConstructor
@@ -18,31 +25,55 @@ public class initMember {
 
     private final InitMemberService initMemberService;
 
-    @PostConstruct
+    // 부팅이 끝난 뒤 별도 스레드에서 넣으므로 컨텍스트 시작을 막지 않는다.
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
     public void init(){
         // DB에 데이터를 넣는다.
-        initMemberService.init();
+        long start = System.currentTimeMillis();
+        if (initMemberService.init()) {
+            log.info("seeded members in {} ms", System.currentTimeMillis() - start);
+        }
     }
     @Component
     static class InitMemberService {
         @PersistenceContext
         private EntityManager em;
+        @Autowired
+        private PersistenceContextGuard persistenceContextGuard;
 
+        // 넣을 회원 수 (부하 테스트에서 크게 준다)
+        @Value("${init-member.count:100}")
+        private int count;
 
+        /**
+         * 스키마가 재시작 후에도 남으므로 이미 데이터가 있으면 넣지 않는다.
+         */
         @Transactional
-        public void init() {
+        public boolean init() {
+            Long teams = em.createQuery("select count(t) from Team t", Long.class).getSingleResult();
+            if (teams > 0) {
+                return false;
+            }
+
             Team teamA = new Team("teamA");
             Team teamB = new Team("teamB");
             em.persist(teamA);
             em.persist(teamB);
 
-            for (int i = 0; i < 100; i++) {
+            for (int i = 0; i < count; i++) {
                 Team selectedTeam;
                 if (i % 2 == 0) selectedTeam = teamA;
                 else selectedTeam = teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
+                em.persist(new Member("member" + i, i % 100, selectedTeam));
 
+                // 영속성 컨텍스트가 커지지 않도록 주기적으로 비운다. (팀은 다시 붙인다)
+                if (persistenceContextGuard.checkpoint(em)) {
+                    teamA = em.getReference(Team.class, teamA.getId());
+                    teamB = em.getReference(Team.class, teamB.getId());
+                }
             }
+            return true;
         }
     }
 
@@ -0,0 +1,19 @@
+package study.querydsl.limiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LimiterConfig {
+
+    @Bean
+    public FilterRegistrationBean<SearchLoadSheddingFilter> searchLoadSheddingFilter(SearchConcurrencyLimiter limiter,
+                                                                                     MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SearchLoadSheddingFilter> registration =
+                new FilterRegistrationBean<>(new SearchLoadSheddingFilter(limiter, meterRegistry));
+        registration.addUrlPatterns("/v1/members", "/v2/members", "/v3/members");
+        return registration;
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.limiter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 검색 동시 실행 수 제한 (AIMD).
+ *
+ * - 제한 이상이 실행 중이면 바로 거절한다. (커넥션 풀 대기열에 쌓이기 전에 503)
+ * - 목표 지연 안에 끝났고 제한의 절반 이상을 쓰고 있었으면 제한을 1/limit 씩 늘린다.
+ * - 목표 지연을 넘겼거나 실패했으면 제한에 backoff 비율을 곱해 줄인다.
+ * 최대값은 커넥션 풀 크기다. 검색 하나가 커넥션 하나를 쓰므로 그 이상은 풀에서 기다리기만 한다.
+ */
+@Component
+public class SearchConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoff;
+
+    private double limit;
+    private int inFlight;
+
+    public SearchConcurrencyLimiter(MeterRegistry meterRegistry,
+                                    @Value("${search.limiter.min-limit:1}") int minLimit,
+                                    @Value("${search.limiter.max-limit:${spring.datasource.hikari.maximum-pool-size:10}}") int maxLimit,
+                                    @Value("${search.limiter.target-latency-ms:500}") long targetLatencyMillis,
+                                    @Value("${search.limiter.backoff:0.9}") double backoff) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyMillis * 1_000_000;
+        this.backoff = backoff;
+        this.limit = maxLimit;
+        Gauge.builder("member.search.limit", this, SearchConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("member.search.inflight", this, SearchConcurrencyLimiter::getInFlight).register(meterRegistry);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos, boolean failed) {
+        int used = inFlight;
+        inFlight--;
+        if (failed || latencyNanos > targetLatencyNanos) {
+            limit = Math.max(minLimit, limit * backoff);
+        } else if (used * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.limiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SearchConcurrencyLimiter 의 허용을 받은 검색 요청만 통과시키고 나머지는 503 으로 돌려보낸다.
+ * 비동기 요청(WebAsyncTask)은 응답이 끝날 때 허용을 반납한다.
+ */
+public class SearchLoadSheddingFilter extends OncePerRequestFilter {
+
+    private final SearchConcurrencyLimiter limiter;
+    private final MeterRegistry meterRegistry;
+
+    public SearchLoadSheddingFilter(SearchConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            meterRegistry.counter("member.search.shed").increment();
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "too many concurrent searches");
+            return;
+        }
+
+        Permit permit = new Permit(response);
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release(failed);
+            }
+        }
+    }
+
+    private class Permit implements AsyncListener {
+
+        private final long start = System.nanoTime();
+        private final HttpServletResponse response;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(HttpServletResponse response) {
+            this.response = response;
+        }
+
+        private void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
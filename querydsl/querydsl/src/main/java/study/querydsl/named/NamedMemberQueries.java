@@ -0,0 +1,108 @@
+package study.querydsl.named;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import study.querydsl.dto.QMemberTeamDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 조건이 바뀌지 않는(고정 모양) 저장소 쿼리를 Querydsl 로 정의하고 JPQL named query 로 렌더링한다.
+ * 빌드 때 NamedQueryGenerator 가 META-INF/orm.xml 로 써 두면 Hibernate 가 기동하면서 파싱/검증하고
+ * 쿼리 플랜 캐시를 채운다. 값은 상수 대신 Param 으로 받는다. (:이름 으로 바인딩)
+ */
+public final class NamedMemberQueries {
+
+    public static final String SEARCH_BY_ID_RANGE = "Member.searchByIdRange";
+    public static final String IDS_BY_AGE_GREATER_THAN = "Member.idsByAgeGreaterThan";
+    public static final String BULK_AGE_ADD = "Member.bulkAgeAdd";
+
+    public static final Param<Long> FROM_ID = new Param<>(Long.class, "fromId");
+    public static final Param<Long> TO_ID = new Param<>(Long.class, "toId");
+    public static final Param<Integer> AGE = new Param<>(Integer.class, "age");
+    public static final Param<Integer> AMOUNT = new Param<>(Integer.class, "amount");
+
+    // SEARCH_BY_ID_RANGE 결과 행(Object[]) -> MemberTeamDto
+    public static final QMemberTeamDto MEMBER_TEAM = new QMemberTeamDto(
+            member.id, member.username, member.age, team.id, team.name);
+
+    private static final Pattern POSITIONAL = Pattern.compile("\\?(\\d+)");
+
+    private NamedMemberQueries() {
+    }
+
+    /**
+     * 이름 -> JPQL (선언 순서)
+     */
+    public static Map<String, String> render() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put(SEARCH_BY_ID_RANGE, select(new JPAQuery<Void>()
+                .select(MEMBER_TEAM)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.between(FROM_ID, TO_ID))
+                .orderBy(member.id.asc())
+                .getMetadata()));
+        queries.put(IDS_BY_AGE_GREATER_THAN, select(new JPAQuery<Void>()
+                .select(member.id)
+                .from(member)
+                .where(member.age.gt(AGE))
+                .orderBy(member.id.asc())
+                .getMetadata()));
+        queries.put(BULK_AGE_ADD, update(member,
+                Map.of(member.age, member.age.add(AMOUNT))));
+        return queries;
+    }
+
+    static String select(QueryMetadata metadata) {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(metadata, false, null);
+        return namedParameters(serializer);
+    }
+
+    static String update(EntityPath<?> entity, Map<Path<?>, Expression<?>> updates, Predicate... where) {
+        QueryMetadata metadata = new DefaultQueryMetadata();
+        metadata.addJoin(JoinType.DEFAULT, entity);
+        for (Predicate predicate : where) {
+            metadata.addWhere(predicate);
+        }
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serializeForUpdate(metadata, updates);
+        return namedParameters(serializer);
+    }
+
+    /**
+     * Querydsl 은 값을 ?1, ?2 .. 로 쓰므로 Param 이름으로 바꾼다. 상수가 섞여 있으면 named query 로 만들 수 없다.
+     */
+    private static String namedParameters(JPQLSerializer serializer) {
+        List<Object> constants = serializer.getConstants();
+        Matcher matcher = POSITIONAL.matcher(serializer.toString());
+        StringBuffer jpql = new StringBuffer();
+        while (matcher.find()) {
+            Object constant = constants.get(Integer.parseInt(matcher.group(1)) - 1);
+            if (!(constant instanceof ParamExpression)) {
+                throw new IllegalStateException("named query 에는 상수 대신 Param 을 써야 합니다: " + constant);
+            }
+            matcher.appendReplacement(jpql, ":" + ((ParamExpression<?>) constant).getName());
+        }
+        matcher.appendTail(jpql);
+        return jpql.toString().replaceAll("\\s+", " ").trim();
+    }
+}
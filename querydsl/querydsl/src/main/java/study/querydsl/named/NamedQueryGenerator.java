@@ -0,0 +1,43 @@
+package study.querydsl.named;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * 빌드 단계(gradle generateNamedQueries)에서 실행한다. NamedMemberQueries 를 orm.xml 의 named-query 로 쓴다.
+ * 예) java study.querydsl.named.NamedQueryGenerator build/generated/named-queries/META-INF/orm.xml
+ */
+public class NamedQueryGenerator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("usage: NamedQueryGenerator <orm.xml>");
+        }
+        Path target = Paths.get(args[0]);
+        write(target, NamedMemberQueries.render());
+    }
+
+    static void write(Path target, Map<String, String> queries) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<!-- NamedQueryGenerator 가 만든 파일. 직접 고치지 말 것 (NamedMemberQueries) -->\n");
+            out.write("<entity-mappings xmlns=\"http://xmlns.jcp.org/xml/ns/persistence/orm\"\n");
+            out.write("                 xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n");
+            out.write("                 xsi:schemaLocation=\"http://xmlns.jcp.org/xml/ns/persistence/orm http://xmlns.jcp.org/xml/ns/persistence/orm_2_1.xsd\"\n");
+            out.write("                 version=\"2.1\">\n");
+            for (Map.Entry<String, String> query : queries.entrySet()) {
+                out.write("    <named-query name=\"" + query.getKey() + "\">\n");
+                out.write("        <query><![CDATA[" + query.getValue() + "]]></query>\n");
+                out.write("    </named-query>\n");
+            }
+            out.write("</entity-mappings>\n");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.named;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.Query;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+/**
+ * 빌드 때 만든 orm.xml 이 없거나 NamedMemberQueries 와 다르면(IDE 에서 바로 실행 등) 기동 시 컴파일해 등록한다.
+ * 어느 쪽이든 JPQL 오류는 첫 요청이 아니라 기동할 때 드러난다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NamedQueryRegistrar {
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void register() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            int registered = 0;
+            for (Map.Entry<String, String> query : NamedMemberQueries.render().entrySet()) {
+                if (!query.getValue().equals(queryString(em, query.getKey()))) {
+                    emf.addNamedQuery(query.getKey(), em.createQuery(query.getValue()));
+                    registered++;
+                }
+            }
+            if (registered > 0) {
+                log.warn("{} named queries were not precompiled (run gradle generateNamedQueries); registered at startup", registered);
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private static String queryString(EntityManager em, String name) {
+        try {
+            return em.createNamedQuery(name).unwrap(Query.class).getQueryString();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.planner;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.EstimatedPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+/**
+ * 화면 페이징용 추정 건수 모드.
+ * 통계(MemberStatistics)로 추정한 건수가 exactThreshold 이하면 지금처럼 count 쿼리로 정확히 세고,
+ * 그보다 많으면 count 쿼리 없이 추정값을 쓴다. 추정값은 cap 에서 잘라 "10,000+" 로 표시한다.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MemberPageService {
+
+    private final MemberRepository memberRepository;
+    private final MemberStatistics statistics;
+    private final long exactThreshold;
+    private final long cap;
+
+    public MemberPageService(MemberRepository memberRepository,
+                             MemberStatistics statistics,
+                             @Value("${paging.estimate.exact-threshold:5000}") long exactThreshold,
+                             @Value("${paging.estimate.cap:10000}") long cap) {
+        this.memberRepository = memberRepository;
+        this.statistics = statistics;
+        this.exactThreshold = exactThreshold;
+        this.cap = cap;
+    }
+
+    public EstimatedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable) {
+        long estimate = statistics.estimate(condition);
+        if (estimate <= exactThreshold) {
+            return new EstimatedPage<>(memberRepository.searchPageComplex(condition, pageable), true, cap);
+        }
+
+        boolean[] estimated = {false};
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, pageable, () -> {
+            estimated[0] = true;
+            return Math.min(estimate, cap);
+        });
+        if (!estimated[0]) {
+            // 마지막 페이지에 도달해 PageableExecutionUtils 가 정확한 건수를 계산했다.
+            return new EstimatedPage<>(page, true, cap);
+        }
+        // 현재 페이지까지는 실제로 있으므로 그보다 작게 추정하지 않는다.
+        // 페이지가 꽉 찼으면 뒤에 더 있을 수 있으므로 한 건 더 있다고 보고 다음 페이지를 열어 둔다. (cap 을 넘어도)
+        long seen = pageable.getOffset() + page.getNumberOfElements();
+        long atLeast = page.getNumberOfElements() == pageable.getPageSize() ? seen + 1 : seen;
+        long total = Math.max(atLeast, Math.min(estimate, cap));
+        return new EstimatedPage<>(new PageImpl<>(page.getContent(), pageable, total), false, cap);
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.planner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberRepository.search 앞에서 통계로 두 가지 실행 계획의 비용을 비교해 고른다.
+ * - JOIN : member 를 (나이 조건이 있으면 나이 인덱스로) 읽으면서 team 과 조인
+ * - TWO_PHASE : 팀 id 를 먼저 구하고 member.team_id 인덱스로 해당 팀 회원만 읽음
+ *
+ * 팀 이름 조건만 있을 때 작은 팀이면 TWO_PHASE 가 훨씬 적게 읽는다.
+ * 팀 id 는 매 검색마다 team 에서 (이름 인덱스로) 구하고, 통계는 비용 추정에만 쓴다.
+ * 통계는 주기적으로 다시 집계되므로 새로 생기거나 이름이 바뀐 팀이 바로 반영되지 않는다.
+ * 선택한 계획은 member.search.plan 지표(plan 태그)로 남는다.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MemberSearchPlanner {
+
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final MemberStatistics statistics;
+    private final MeterRegistry meterRegistry;
+    // IN 조회는 행당 비용이 더 크므로 읽는 행 수에 곱하는 가중치
+    private final double twoPhaseWeight;
+
+    public MemberSearchPlanner(MemberRepository memberRepository,
+                               TeamRepository teamRepository,
+                               MemberStatistics statistics,
+                               MeterRegistry meterRegistry,
+                               @Value("${planner.two-phase-weight:2.0}") double twoPhaseWeight) {
+        this.memberRepository = memberRepository;
+        this.teamRepository = teamRepository;
+        this.statistics = statistics;
+        this.meterRegistry = meterRegistry;
+        this.twoPhaseWeight = twoPhaseWeight;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<Long> teamIds = resolveTeamIds(condition);
+        SearchPlan plan = choosePlan(condition, teamIds);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (plan == SearchPlan.TWO_PHASE) {
+                Map<Long, String> teamNames = new HashMap<>();
+                for (Long teamId : teamIds) {
+                    teamNames.put(teamId, condition.getTeamName());
+                }
+                return memberRepository.searchByTeamIds(condition, teamNames);
+            }
+            return memberRepository.search(condition);
+        } finally {
+            sample.stop(meterRegistry.timer("member.search.plan", "plan", plan.name()));
+        }
+    }
+
+    public SearchPlan choosePlan(MemberSearchCondition condition) {
+        return choosePlan(condition, resolveTeamIds(condition));
+    }
+
+    private SearchPlan choosePlan(MemberSearchCondition condition, List<Long> teamIds) {
+        // 팀 조건이 없으면 기본 계획
+        // searchByTeamIds 는 member 테이블만 보므로 보관 회원까지 조회할 때도 기본 계획
+        if (condition.isIncludeArchived() || !hasText(condition.getTeamName())) {
+            return SearchPlan.JOIN;
+        }
+        long joinRows = statistics.totalMembers();
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            joinRows = statistics.ageCount(condition.getAgeGoe(), condition.getAgeLoe());
+        }
+        // 마지막 집계 이후 생긴 팀은 통계에 없으므로 작은 팀으로 본다. (팀이 없으면 읽을 회원도 없다)
+        double twoPhaseRows = statistics.teamMemberCount(teamIds) * twoPhaseWeight;
+        return twoPhaseRows < joinRows ? SearchPlan.TWO_PHASE : SearchPlan.JOIN;
+    }
+
+    private List<Long> resolveTeamIds(MemberSearchCondition condition) {
+        if (condition.isIncludeArchived() || !hasText(condition.getTeamName())) {
+            return Collections.emptyList();
+        }
+        return teamRepository.findIdsByName(condition.getTeamName());
+    }
+}
@@ -0,0 +1,213 @@
+package study.querydsl.planner;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.changelog.ChangeEvent;
+import study.querydsl.changelog.ChangeLogConsumer;
+import study.querydsl.condition.ConditionFields;
+import study.querydsl.dto.MemberSearchCondition;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 계획/건수 추정에 쓰는 가벼운 통계.
+ * - 전체 회원 수
+ * - 팀 이름별, 팀 id 별 회원 수
+ * - 나이별 회원 수 (나이 값의 종류가 적으므로 나이 하나가 히스토그램 한 칸)
+ *
+ * Member/Team 변경 이벤트가 오면 dirty 로 표시했다가 주기적으로 다시 집계한다.
+ * 최대 한 주기만큼 늦을 수 있으므로 비용 추정에만 쓰고, 조회 대상(팀 id 등)을 정하는 데 쓰지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberStatistics implements ChangeLogConsumer {
+
+    private static final ConditionFields<MemberSearchCondition> FIELDS = ConditionFields.of(MemberSearchCondition.class);
+
+    // estimate 가 반영하는 조건 필드
+    private static final Set<String> ESTIMATED_FIELDS = Set.of(
+            "username", "teamName", "ageGoe", "ageLoe", "usernamePrefix", "teamIds", "usernameNormalized");
+
+    // 접두어 한 글자마다 후보가 줄어드는 배수 (이름 분포는 모르므로 가정값)
+    private static final int PREFIX_FANOUT = 10;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+
+    private volatile Stats stats = new Stats(0, Collections.emptyMap(), Collections.emptyMap(), new TreeMap<>());
+    private volatile boolean dirty = true;
+
+    public MemberStatistics(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @Scheduled(fixedDelayString = "${statistics.refresh-interval-ms:60000}")
+    public void refreshIfDirty() {
+        if (dirty) {
+            refresh();
+        }
+    }
+
+    public synchronized void refresh() {
+        dirty = false;
+        stats = readOnlyTx.execute(status -> load());
+        log.debug("member statistics refreshed. total={}, teams={}", stats.total, stats.teams.size());
+    }
+
+    private Stats load() {
+        Long total = queryFactory
+                .select(member.count())
+                .from(member)
+                .fetchOne();
+
+        Map<String, Long> teams = new HashMap<>();
+        Map<Long, Long> teamMembers = new HashMap<>();
+        List<Tuple> teamRows = queryFactory
+                .select(team.id, team.name, member.count())
+                .from(team)
+                .leftJoin(team.members, member)
+                .groupBy(team.id, team.name)
+                .fetch();
+        for (Tuple row : teamRows) {
+            Long count = row.get(member.count());
+            long members = count == null ? 0 : count;
+            teams.merge(row.get(team.name), members, Long::sum);
+            teamMembers.put(row.get(team.id), members);
+        }
+
+        NavigableMap<Integer, Long> ages = new TreeMap<>();
+        List<Tuple> ageRows = queryFactory
+                .select(member.age, member.count())
+                .from(member)
+                .groupBy(member.age)
+                .fetch();
+        for (Tuple row : ageRows) {
+            ages.put(row.get(member.age), row.get(member.count()));
+        }
+        return new Stats(total == null ? 0 : total, teams, teamMembers, ages);
+    }
+
+    public long totalMembers() {
+        return stats.total;
+    }
+
+    /**
+     * 이름이 teamName 인 팀들의 회원 수 (이름은 유일하지 않을 수 있다)
+     */
+    public long teamMemberCount(String teamName) {
+        return stats.teams.getOrDefault(teamName, 0L);
+    }
+
+    /**
+     * 팀 id 들의 회원 수. 마지막 집계 이후 생긴 팀은 0 으로 본다.
+     */
+    public long teamMemberCount(Collection<Long> teamIds) {
+        Map<Long, Long> teamMembers = stats.teamMembers;
+        long count = 0;
+        for (Long teamId : teamIds) {
+            count += teamMembers.getOrDefault(teamId, 0L);
+        }
+        return count;
+    }
+
+    /**
+     * [ageGoe, ageLoe] 에 속한 회원 수 (null 이면 열린 구간)
+     */
+    public long ageCount(Integer ageGoe, Integer ageLoe) {
+        NavigableMap<Integer, Long> ages = stats.ages;
+        if (ageGoe != null && ageLoe != null) {
+            if (ageGoe > ageLoe) {
+                return 0;
+            }
+            ages = ages.subMap(ageGoe, true, ageLoe, true);
+        } else if (ageGoe != null) {
+            ages = ages.tailMap(ageGoe, true);
+        } else if (ageLoe != null) {
+            ages = ages.headMap(ageLoe, true);
+        }
+        long count = 0;
+        for (Long c : ages.values()) {
+            count += c;
+        }
+        return count;
+    }
+
+    /**
+     * 조건에 맞는 회원 수 추정. 팀과 나이는 서로 독립이라고 가정한다.
+     * - teamName, teamIds : 팀별 회원 수 (둘 다 있으면 작은 쪽)
+     * - username, usernameNormalized : 같은 이름이 거의 없으므로 일치 조건이 있으면 1건으로 본다.
+     * - usernamePrefix : 이름 분포는 모으지 않으므로 접두어 한 글자마다 1/PREFIX_FANOUT 로 좁혀진다고 본다.
+     * 추정할 줄 모르는 조건이 있으면 0 을 돌려줘서 호출하는 쪽이 정확히 세게 한다.
+     */
+    public long estimate(MemberSearchCondition condition) {
+        Stats current = stats;
+        if (current.total == 0 || !ESTIMATED_FIELDS.containsAll(FIELDS.values(condition).keySet())) {
+            return 0;
+        }
+        double rows = current.total;
+        if (hasText(condition.getTeamName())) {
+            rows = teamMemberCount(condition.getTeamName());
+        }
+        if (condition.getTeamIds() != null) {
+            rows = Math.min(rows, teamMemberCount(condition.getTeamIds()));
+        }
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            rows *= (double) ageCount(condition.getAgeGoe(), condition.getAgeLoe()) / current.total;
+        }
+        if (hasText(condition.getUsernamePrefix())) {
+            rows /= Math.pow(PREFIX_FANOUT, condition.getUsernamePrefix().length());
+        }
+        if (hasText(condition.getUsername()) || hasText(condition.getUsernameNormalized())) {
+            rows = Math.min(rows, 1);
+        }
+        return Math.round(rows);
+    }
+
+    @Override
+    public String consumerName() {
+        return "member-statistics";
+    }
+
+    @Override
+    public boolean perInstance() {
+        return true;
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        dirty = true;
+    }
+
+    private static class Stats {
+        private final long total;
+        private final Map<String, Long> teams;
+        private final Map<Long, Long> teamMembers;
+        private final NavigableMap<Integer, Long> ages;
+
+        private Stats(long total, Map<String, Long> teams, Map<Long, Long> teamMembers, NavigableMap<Integer, Long> ages) {
+            this.total = total;
+            this.teams = teams;
+            this.teamMembers = teamMembers;
+            this.ages = ages;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package study.querydsl.planner;
+
+public enum SearchPlan {
+    // member left join team 한 번에 조회
+    JOIN,
+    // 팀 이름으로 팀 id 를 먼저 구하고 member.team.id in (...) 로 조회
+    TWO_PHASE
+}
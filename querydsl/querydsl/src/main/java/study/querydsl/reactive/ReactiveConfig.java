@@ -0,0 +1,54 @@
+package study.querydsl.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * ConnectionFactory 를 빈으로 등록하면 DataSource 자동 구성(JPA)이 꺼지므로,
+ * 풀은 이 설정 안에서만 만들고 DatabaseClient 만 빈으로 노출한다.
+ * 접속 정보는 JPA 와 같은 spring.datasource.* 를 쓴다. (r2dbc-h2 는 tcp URL 형식을 지원하지 않아 H2 URL 을 그대로 넘긴다)
+ */
+@Configuration
+public class ReactiveConfig implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+    public ReactiveConfig(@Value("${spring.datasource.url}") String jdbcUrl,
+                          @Value("${spring.datasource.username:}") String username,
+                          @Value("${spring.datasource.password:}") String password,
+                          @Value("${reactive.r2dbc.max-size:10}") int maxSize) {
+        if (!jdbcUrl.startsWith(H2_JDBC_PREFIX)) {
+            throw new IllegalStateException("reactive search supports H2 only: " + jdbcUrl);
+        }
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.builder()
+                .option(ConnectionFactoryOptions.DRIVER, "h2")
+                .option(Option.valueOf("url"), jdbcUrl.substring(H2_JDBC_PREFIX.length()))
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
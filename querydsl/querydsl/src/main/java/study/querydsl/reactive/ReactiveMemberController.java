@@ -0,0 +1,24 @@
+package study.querydsl.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+/**
+ * 검색 결과를 NDJSON 으로 흘려보낸다. 응답을 쓰는 동안 요청 스레드를 붙잡지 않는다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ReactiveMemberController {
+
+    private final ReactiveMemberRepository reactiveMemberRepository;
+
+    @GetMapping(value = "/reactive/members", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberTeamDto> searchMember(MemberSearchCondition condition) {
+        return reactiveMemberRepository.search(condition);
+    }
+}
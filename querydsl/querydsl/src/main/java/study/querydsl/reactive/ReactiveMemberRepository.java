@@ -0,0 +1,82 @@
+package study.querydsl.reactive;
+
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLBindings;
+import com.querydsl.sql.SQLQuery;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import study.querydsl.condition.ConditionPredicates;
+import study.querydsl.dialect.MemberFunctions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.reactive.SMember.member;
+import static study.querydsl.reactive.STeam.team;
+import static study.querydsl.repository.UnsupportedConditionException.rejectIncludeArchived;
+
+/**
+ * MemberRepositoryImpl.search 의 R2DBC 버전.
+ * SQL 은 Querydsl SQL 로 만들고(조건식은 ConditionPredicates 공유), 실행은 R2DBC DatabaseClient 로 한다.
+ * 결과는 구독자가 요청한 만큼만 드라이버에서 가져온다.
+ * (DatabaseClient.sql().map().all() 은 Result 를 flatMap 으로 이어 요청보다 많이 미리 당겨 올 수 있으므로
+ *  Result.map 을 concatMap 으로 직접 이어 요청을 그대로 넘긴다)
+ * includeArchived 는 지원하지 않으며 UnsupportedConditionException 을 던진다.
+ */
+@Repository
+public class ReactiveMemberRepository {
+
+    private static final Configuration CONFIGURATION = new Configuration(H2Templates.builder().build());
+
+    private final DatabaseClient databaseClient;
+    private final ConditionPredicates<MemberSearchCondition> conditions = ConditionPredicates.of(MemberSearchCondition.class, Map.of(
+            "username", member.username,
+            "teamName", team.name,
+            "age", member.age,
+            "teamId", member.teamId,
+            "normalizedUsername", MemberFunctions.normalizeSql(member.username)));
+
+    public ReactiveMemberRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<MemberTeamDto> search(MemberSearchCondition condition) {
+        // member_archive 를 이어 붙이는 리액티브 조회는 아직 없다.
+        rejectIncludeArchived(condition, "reactive search");
+        if (conditions.isContradictory(condition)) {
+            return Flux.empty();
+        }
+        SQLBindings sql = new SQLQuery<Void>(CONFIGURATION)
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(conditions.toPredicates(condition))
+                .getSQL();
+
+        List<Object> bindings = sql.getNullFriendlyBindings();
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(sql.getSQL());
+            for (int i = 0; i < bindings.size(); i++) {
+                statement.bind(i, bindings.get(i));
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> toDto(row)));
+        });
+    }
+
+    private static MemberTeamDto toDto(Row row) {
+        Integer age = row.get(2, Integer.class);
+        return new MemberTeamDto(
+                row.get(0, Long.class),
+                row.get(1, String.class),
+                age == null ? 0 : age,
+                row.get(3, Long.class),
+                row.get(4, String.class));
+    }
+}
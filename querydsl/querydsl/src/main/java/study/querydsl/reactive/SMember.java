@@ -0,0 +1,30 @@
+package study.querydsl.reactive;
+
+import com.querydsl.core.types.PathMetadataFactory;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+
+/**
+ * member 테이블의 Querydsl SQL 타입 (JPA 엔티티 Member 와 같은 테이블)
+ */
+public class SMember extends RelationalPathBase<SMember> {
+
+    public static final SMember member = new SMember("m");
+
+    public final NumberPath<Long> id = createNumber("id", Long.class);
+    public final StringPath username = createString("username");
+    public final NumberPath<Integer> age = createNumber("age", Integer.class);
+    public final NumberPath<Long> teamId = createNumber("teamId", Long.class);
+
+    public SMember(String variable) {
+        super(SMember.class, PathMetadataFactory.forVariable(variable), null, "member");
+        addMetadata(id, ColumnMetadata.named("member_id").withIndex(1).ofType(Types.BIGINT));
+        addMetadata(username, ColumnMetadata.named("username").withIndex(2).ofType(Types.VARCHAR));
+        addMetadata(age, ColumnMetadata.named("age").withIndex(3).ofType(Types.INTEGER));
+        addMetadata(teamId, ColumnMetadata.named("team_id").withIndex(4).ofType(Types.BIGINT));
+    }
+}
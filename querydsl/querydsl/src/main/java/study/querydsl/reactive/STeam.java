@@ -0,0 +1,26 @@
+package study.querydsl.reactive;
+
+import com.querydsl.core.types.PathMetadataFactory;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+
+/**
+ * team 테이블의 Querydsl SQL 타입 (JPA 엔티티 Team 과 같은 테이블)
+ */
+public class STeam extends RelationalPathBase<STeam> {
+
+    public static final STeam team = new STeam("t");
+
+    public final NumberPath<Long> id = createNumber("id", Long.class);
+    public final StringPath name = createString("name");
+
+    public STeam(String variable) {
+        super(STeam.class, PathMetadataFactory.forVariable(variable), null, "team");
+        addMetadata(id, ColumnMetadata.named("team_id").withIndex(1).ofType(Types.BIGINT));
+        addMetadata(name, ColumnMetadata.named("name").withIndex(2).ofType(Types.VARCHAR));
+    }
+}
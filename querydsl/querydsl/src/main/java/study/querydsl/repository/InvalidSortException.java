@@ -0,0 +1,16 @@
+package study.querydsl.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * IllegalArgumentException 을 상속하면 리포지토리 프록시가 InvalidDataAccessApiUsageException 으로 바꾸므로
+ * RuntimeException 을 상속한다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSortException extends RuntimeException {
+
+    public InvalidSortException(String message) {
+        super(message);
+    }
+}
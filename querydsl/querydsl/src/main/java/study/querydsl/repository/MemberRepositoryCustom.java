@@ -1,15 +1,58 @@
 package study.querydsl.repository;
 
+import com.mysema.commons.lang.CloseableIterator;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.AgeBucketDto;
 import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSyncRecord;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UpsertResult;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
 
 public interface MemberRepositoryCustom {
+    // condition.includeArchived 면 보관 회원을 뒤에 이어 붙인다. (search, searchIterator, searchFields)
+    // 나머지 조회는 includeArchived 를 지원하지 않으며 UnsupportedConditionException 을 던진다.
     List<MemberTeamDto> search(MemberSearchCondition condition);
+    // search 와 같은 결과를 리스트로 모으지 않고 커서로 읽는다. (id 오름차순, 트랜잭션 안에서 쓰고 close 할 것)
+    CloseableIterator<MemberTeamDto> searchIterator(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    // 전체 건수를 count 쿼리 대신 totalSupplier 로 구한다.
+    Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, LongSupplier totalSupplier);
+
+    // 팀 id 로 먼저 좁힌 뒤 조회 (teamNames: 팀 id -> 팀 이름)
+    List<MemberTeamDto> searchByTeamIds(MemberSearchCondition condition, Map<Long, String> teamNames);
+
+    // 요청한 필드만 조회 (필드명 -> 값)
+    List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberField> fields);
+
+    // 나이 구간(bucketSize 단위)별 회원 수, 구간 오름차순 (DB 에서 그룹핑)
+    List<AgeBucketDto> countByAgeBucket(MemberSearchCondition condition, int bucketSize);
+
+    // 회원명과 이름이 같은 팀 (teamId, teamName 은 이름이 같은 팀, includeUnmatched 면 없는 회원도 팀 null 로)
+    List<MemberTeamDto> searchByUsernameMatchingTeamName(MemberSearchCondition condition, boolean includeUnmatched);
+
+    // id 구간 조회 (id 오름차순, 최대 limit 건)
+    List<MemberTeamDto> searchByIdRange(long fromId, long toId, int limit);
+
+    // 벌크 연산 (영향받은 id 범위를 change_log 에 기록)
+    long bulkAgeAdd(int amount);
+    long bulkAgeAddByIds(int amount, Collection<Long> memberIds);
+    // bulkAgeAddByIds 와 같지만 팀별 바뀐 회원 수를 반환하고, team_age_summary 는 호출한 쪽이 반영한다. (BULK_AGE_ADD)
+    Map<Long, Long> bulkAgeDeltaByIds(int amount, Collection<Long> memberIds);
+    long bulkDeleteByAgeGreaterThan(int age);
+
+    // 조건에 맞는 회원을 id 순으로 최대 limit 명까지 member_archive 로 옮기고, 옮긴 수를 반환한다.
+    long archiveByAgeGreaterThan(int age, int limit);
+
+    // memberId 기준으로 없으면 넣고, 다르면 고친다. (스테이징 테이블 + MERGE 한 번)
+    UpsertResult upsertMembers(Collection<MemberSyncRecord> records);
 }
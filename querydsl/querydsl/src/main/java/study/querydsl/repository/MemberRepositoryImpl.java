@@ -1,35 +1,97 @@
 package study.querydsl.repository;
 
+import com.mysema.commons.lang.CloseableIterator;
+import com.mysema.commons.lang.EmptyCloseableIterator;
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.jpa.impl.JPAQuery;
-import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import study.querydsl.changelog.ChangeLogWriter;
+import study.querydsl.changelog.ChangeType;
+import study.querydsl.condition.ConditionPredicates;
+import study.querydsl.dialect.MemberFunctions;
+import study.querydsl.dto.AgeBucketDto;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSyncRecord;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UpsertResult;
 import study.querydsl.entity.Member;
+import study.querydsl.named.NamedMemberQueries;
+import study.querydsl.timeout.TimeLimitedJPAQueryFactory;
 
 import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberArchive.memberArchive;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.UnsupportedConditionException.rejectIncludeArchived;
 
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
-    private final JPAQueryFactory queryFactory;
+    private static final String STAGING_INSERT_SQL =
+            "insert into member_staging (batch_id, external_id, username, age, team_id) values (?, ?, ?, ?, ?)";
+    private static final int STAGING_BATCH_SIZE = 1000;
+    private static final int ITERATOR_FETCH_SIZE = 1000;
+    // 값이 같은 행은 고치지 않으므로 MERGE 의 영향 행 수 = 넣은 수 + 고친 수
+    // 상위 키는 external_id 로 맞추고, 새 회원의 member_id 는 엔티티와 같은 시퀀스에서 받는다.
+    private static final String MERGE_SQL =
+            "merge into member m " +
+            "using (select external_id, username, age, team_id from member_staging where batch_id = :batchId) s " +
+            "on m.external_id = s.external_id " +
+            "when matched and (m.username is distinct from s.username or m.age <> s.age or m.team_id is distinct from s.team_id) then " +
+            "update set username = s.username, age = s.age, team_id = s.team_id " +
+            "when not matched then " +
+            "insert (member_id, external_id, username, age, team_id) " +
+            "values (next value for hibernate_sequence, s.external_id, s.username, s.age, s.team_id)";
+
+    private final EntityManager em;
+    private final TimeLimitedJPAQueryFactory queryFactory;
+    private final ConditionPredicates<MemberSearchCondition> conditions = ConditionPredicates.of(MemberSearchCondition.class, Map.of(
+            "username", member.username,
+            "teamName", team.name,
+            "age", member.age,
+            "teamId", member.team.id,
+            "normalizedUsername", MemberFunctions.normalize(member.username)));
+    private final ConditionPredicates<MemberSearchCondition> archiveConditions = ConditionPredicates.of(MemberSearchCondition.class, Map.of(
+            "username", memberArchive.username,
+            "teamName", team.name,
+            "age", memberArchive.age,
+            "teamId", memberArchive.teamId,
+            "normalizedUsername", MemberFunctions.normalize(memberArchive.username)));
 
     public MemberRepositoryImpl(EntityManager em) {
-        this.queryFactory = new JPAQueryFactory(em);
+        this.em = em;
+        this.queryFactory = new TimeLimitedJPAQueryFactory(em);
     }
 
-    @Override
-    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+    private JPAQuery<MemberTeamDto> hotQuery(MemberSearchCondition condition) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         // 별칭 지정
@@ -41,17 +103,65 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                .where(conditions.toPredicates(condition));
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        // 동시에 만족할 수 없는 조건이면 DB 에 묻지 않는다.
+        if (conditions.isContradictory(condition)) {
+            return new ArrayList<>();
+        }
+        List<MemberTeamDto> result = hotQuery(condition).fetch();
+        if (condition.isIncludeArchived()) {
+            result.addAll(archivedQuery(condition).fetch());
+        }
+        return result;
+    }
+
+    @Override
+    public CloseableIterator<MemberTeamDto> searchIterator(MemberSearchCondition condition) {
+        if (conditions.isContradictory(condition)) {
+            return new EmptyCloseableIterator<>();
+        }
+        // 두 커서 모두 여기서 열어 둔다. (쿼리 제한 시간은 이 메서드 안에서만 걸린다)
+        CloseableIterator<MemberTeamDto> hot = hotQuery(condition)
+                .orderBy(member.id.asc())
+                .setHint(QueryHints.FETCH_SIZE, ITERATOR_FETCH_SIZE)
+                .iterate();
+        if (!condition.isIncludeArchived()) {
+            return hot;
+        }
+        CloseableIterator<MemberTeamDto> archived = archivedQuery(condition)
+                .setHint(QueryHints.FETCH_SIZE, ITERATOR_FETCH_SIZE)
+                .iterate();
+        return new ConcatIterator(hot, archived);
+    }
+
+    /**
+     * member_archive 는 team 과 연관관계가 없으므로 team_id 로 세타 조인한다.
+     */
+    private JPAQuery<MemberTeamDto> archivedQuery(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        memberArchive.id.as("memberId"),
+                        memberArchive.username,
+                        memberArchive.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(memberArchive)
+                .leftJoin(team).on(memberArchive.teamId.eq(team.id))
+                .where(archiveConditions.toPredicates(condition))
+                .orderBy(memberArchive.id.asc());
     }
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        rejectIncludeArchived(condition, "searchPageSimple");
+        if (conditions.isContradictory(condition)) {
+            return new PageImpl<>(new ArrayList<>(), pageable, 0);
+        }
         QueryResults<MemberTeamDto> result = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -62,12 +172,8 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+                .where(conditions.toPredicates(condition))
+                .orderBy(MemberSort.toOrderSpecifiers(pageable.getSort()))
                 // ~번 부터 시작할지 정함
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
@@ -82,6 +188,23 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        rejectIncludeArchived(condition, "searchPageComplex");
+        // fetchResult를 사용하지않고, count쿼리를 따로작성
+        JPAQuery<Member> countQuery = queryFactory
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(conditions.toPredicates(condition));
+
+        return searchPageComplex(condition, pageable, countQuery::fetchCount);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, LongSupplier totalSupplier) {
+        rejectIncludeArchived(condition, "searchPageComplex");
+        if (conditions.isContradictory(condition)) {
+            return new PageImpl<>(new ArrayList<>(), pageable, 0);
+        }
         List<MemberTeamDto> content = queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -92,60 +215,350 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+                .where(conditions.toPredicates(condition))
+                .orderBy(MemberSort.toOrderSpecifiers(pageable.getSort()))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
-        // fetchResult를 사용하지않고, count쿼리를 따로작성
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+        // 첫 페이지가 다 안 찼거나 마지막 페이지면 totalSupplier 를 호출하지 않는다.
+        return PageableExecutionUtils.getPage(content, pageable, totalSupplier);
+    }
+
+    @Override
+    public List<MemberTeamDto> searchByTeamIds(MemberSearchCondition condition, Map<Long, String> teamNames) {
+        rejectIncludeArchived(condition, "searchByTeamIds");
+        if (teamNames.isEmpty() || conditions.isContradictory(condition)) {
+            return new ArrayList<>();
+        }
+        // team 조인 없이 member.team_id 인덱스로 찾고, 팀 이름은 이미 알고 있는 값으로 채운다.
+        List<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(member.team.id.in(teamNames.keySet()))
+                .where(conditions.except("teamName").toPredicates(condition))
+                .fetch();
+
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long teamId = row.get(member.team.id);
+            result.add(new MemberTeamDto(
+                    row.get(member.id),
+                    row.get(member.username),
+                    row.get(member.age),
+                    teamId,
+                    teamNames.get(teamId)));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberField> fields) {
+        if (conditions.isContradictory(condition)) {
+            return new ArrayList<>();
+        }
+        List<MemberField> selected = new ArrayList<>(fields);
+        JPAQuery<Tuple> query = queryFactory
+                .select(selected.stream().map(MemberField::getPath).toArray(Expression[]::new))
+                .from(member);
+
+        // team 필드를 고르지 않았고 팀명 조건도 없으면 조인하지 않는다.
+        if (hasText(condition.getTeamName()) || selected.stream().anyMatch(MemberField::isTeamJoin)) {
+            query.leftJoin(member.team, team);
+        }
+
+        List<Tuple> rows = query
+                .where(conditions.toPredicates(condition))
+                .fetch();
+
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        addFields(result, rows, selected, MemberField::getPath);
+        if (condition.isIncludeArchived()) {
+            // search 와 같이 보관 회원을 뒤에 이어 붙인다.
+            JPAQuery<Tuple> archivedQuery = queryFactory
+                    .select(selected.stream().map(MemberField::getArchivePath).toArray(Expression[]::new))
+                    .from(memberArchive);
+            if (hasText(condition.getTeamName()) || selected.stream().anyMatch(MemberField::isTeamJoin)) {
+                archivedQuery.leftJoin(team).on(memberArchive.teamId.eq(team.id));
+            }
+            List<Tuple> archived = archivedQuery
+                    .where(archiveConditions.toPredicates(condition))
+                    .orderBy(memberArchive.id.asc())
+                    .fetch();
+            addFields(result, archived, selected, MemberField::getArchivePath);
+        }
+        return result;
+    }
+
+    private static void addFields(List<Map<String, Object>> result, List<Tuple> rows, List<MemberField> selected,
+                                  Function<MemberField, Expression<?>> path) {
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (MemberField field : selected) {
+                values.put(field.getFieldName(), row.get(path.apply(field)));
+            }
+            result.add(values);
+        }
+    }
+
+    @Override
+    public List<AgeBucketDto> countByAgeBucket(MemberSearchCondition condition, int bucketSize) {
+        rejectIncludeArchived(condition, "countByAgeBucket");
+        if (conditions.isContradictory(condition)) {
+            return new ArrayList<>();
+        }
+        NumberExpression<Integer> bucket = MemberFunctions.ageBucket(member.age, bucketSize);
+        return queryFactory
+                .select(Projections.constructor(AgeBucketDto.class, bucket, member.count()))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+                .where(conditions.toPredicates(condition))
+                .groupBy(bucket)
+                .orderBy(bucket.asc())
+                .fetch();
+    }
+
+    /**
+     * 연관관계 없이 이름으로 조인한다. (세타 조인 / on 절 조인)
+     * idx_team_name 이 있으면 회원마다 팀을 인덱스로 찾고, 없으면 회원 x 팀 전체를 비교한다.
+     * 팀명 조건은 이름이 같은 팀에 걸린다.
+     */
+    @Override
+    public List<MemberTeamDto> searchByUsernameMatchingTeamName(MemberSearchCondition condition, boolean includeUnmatched) {
+        rejectIncludeArchived(condition, "searchByUsernameMatchingTeamName");
+        if (conditions.isContradictory(condition)) {
+            return new ArrayList<>();
+        }
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member);
+        if (includeUnmatched) {
+            query.leftJoin(team).on(member.username.eq(team.name));
+        } else {
+            query.join(team).on(member.username.eq(team.name));
+        }
+        return query
+                .where(conditions.toPredicates(condition))
+                .orderBy(member.id.asc(), team.id.asc())
+                .fetch();
+    }
 
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
-//        return new PageImpl<>(content, pageable, total);
+    @Override
+    public List<MemberTeamDto> searchByIdRange(long fromId, long toId, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = queryFactory.createNamedQuery(NamedMemberQueries.SEARCH_BY_ID_RANGE)
+                .setParameter(NamedMemberQueries.FROM_ID.getName(), fromId)
+                .setParameter(NamedMemberQueries.TO_ID.getName(), toId)
+                .setMaxResults(limit)
+                .getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(NamedMemberQueries.MEMBER_TEAM.newInstance(row));
+        }
+        return result;
     }
 
+    @Override
+    public long bulkAgeAdd(int amount) {
+        recordBulk(ChangeType.BULK_UPDATE, null);
+        return queryFactory.createNamedQuery(NamedMemberQueries.BULK_AGE_ADD)
+                .setParameter(NamedMemberQueries.AMOUNT.getName(), amount)
+                .executeUpdate();
+    }
 
-    private BooleanExpression usernameEq(String username) {
-        if (hasText(username)) {
-            return member.username.eq(username);
+    @Override
+    public long bulkAgeAddByIds(int amount, Collection<Long> memberIds) {
+        BooleanExpression predicate = member.id.in(memberIds);
+        recordBulk(ChangeType.BULK_UPDATE, predicate);
+        return queryFactory
+                .update(member)
+                .set(member.age, member.age.add(amount))
+                .where(predicate)
+                .execute();
+    }
+
+    @Override
+    public Map<Long, Long> bulkAgeDeltaByIds(int amount, Collection<Long> memberIds) {
+        BooleanExpression predicate = member.id.in(memberIds);
+        recordBulk(ChangeType.BULK_AGE_ADD, predicate);
+        Map<Long, Long> teamCounts = new LinkedHashMap<>();
+        for (Tuple row : queryFactory
+                .select(member.team.id, member.count())
+                .from(member)
+                .where(predicate, member.team.isNotNull())
+                .groupBy(member.team.id)
+                .fetch()) {
+            teamCounts.put(row.get(member.team.id), row.get(member.count()));
         }
-        return null;
+        queryFactory
+                .update(member)
+                .set(member.age, member.age.add(amount))
+                .where(predicate)
+                .execute();
+        return teamCounts;
+    }
+
+    @Override
+    public long bulkDeleteByAgeGreaterThan(int age) {
+        BooleanExpression predicate = member.age.gt(age);
+        recordBulk(ChangeType.BULK_DELETE, predicate);
+        return queryFactory
+                .delete(member)
+                .where(predicate)
+                .execute();
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        if (hasText(teamName)) {
-            return team.name.eq(teamName);
+    @Override
+    public long archiveByAgeGreaterThan(int age, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Long> ids = queryFactory.createNamedQuery(NamedMemberQueries.IDS_BY_AGE_GREATER_THAN)
+                .setParameter(NamedMemberQueries.AGE.getName(), age)
+                .setMaxResults(limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
         }
-        return null;
+
+        BooleanExpression predicate = member.id.in(ids);
+        recordBulk(ChangeType.BULK_DELETE, predicate);
+        // JPQL insert-select 에는 archived_at 값을 바인딩할 수 없어 네이티브 쿼리로 복사한다.
+        em.createNativeQuery("insert into member_archive (member_id, username, age, team_id, archived_at) " +
+                        "select member_id, username, age, team_id, :now from member where member_id in (:ids)")
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return queryFactory
+                .delete(member)
+                .where(predicate)
+                .execute();
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        if (ageGoe != null) {
-            return member.age.goe(ageGoe);
+    /**
+     * 1. 레코드를 JDBC 배치로 member_staging 에 넣는다.
+     * 2. 새로 들어갈 건수를 세고, MERGE 한 번으로 없는 행은 넣고 값이 다른 행만 고친다.
+     * 3. 스테이징 행을 지운다.
+     * 상위 키(external_id)로 맞추므로 로컬 member_id 와 겹쳐도 다른 회원을 덮어쓰지 않는다.
+     * 같은 키가 여러 번 오면 마지막 값을 쓴다. 호출하는 쪽의 트랜잭션 안에서 실행해야 한다.
+     */
+    @Override
+    public UpsertResult upsertMembers(Collection<MemberSyncRecord> records) {
+        Map<Long, MemberSyncRecord> byExternalId = new LinkedHashMap<>();
+        for (MemberSyncRecord record : records) {
+            byExternalId.put(Objects.requireNonNull(record.getExternalId(), "externalId"), record);
         }
-        return null;
+        if (byExternalId.isEmpty()) {
+            return new UpsertResult(0, 0, 0);
+        }
+
+        // 영속성 컨텍스트의 변경을 먼저 내보내야 MERGE 가 최신 값과 비교한다.
+        em.flush();
+        String batchId = UUID.randomUUID().toString();
+        Session session = em.unwrap(Session.class);
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(STAGING_INSERT_SQL)) {
+                int batched = 0;
+                for (MemberSyncRecord record : byExternalId.values()) {
+                    ps.setString(1, batchId);
+                    ps.setLong(2, record.getExternalId());
+                    ps.setString(3, record.getUsername());
+                    ps.setInt(4, record.getAge());
+                    ps.setObject(5, record.getTeamId(), Types.BIGINT);
+                    ps.addBatch();
+                    if (++batched % STAGING_BATCH_SIZE == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+        });
+
+        long inserted = ((Number) em.createNativeQuery("select count(*) from member_staging s " +
+                        "where s.batch_id = :batchId and not exists (select 1 from member m where m.external_id = s.external_id)")
+                .setParameter("batchId", batchId)
+                .getSingleResult()).longValue();
+
+        int merged = em.createNativeQuery(MERGE_SQL)
+                .setParameter("batchId", batchId)
+                .executeUpdate();
+        // 새 회원의 member_id 는 MERGE 뒤에야 정해지므로 범위도 그 뒤에 구한다.
+        // (바뀌지 않은 행이 섞여도 소비자 쪽에서 한 번 더 무효화될 뿐이다)
+        Object[] range = (Object[]) em.createNativeQuery("select min(m.member_id), max(m.member_id) from member m " +
+                        "where m.external_id in (select s.external_id from member_staging s where s.batch_id = :batchId)")
+                .setParameter("batchId", batchId)
+                .getSingleResult();
+        if (merged > 0) {
+            ChangeLogWriter.writeRange(session, Member.class.getSimpleName(), ChangeType.BULK_UPSERT,
+                    ((Number) range[0]).longValue(), ((Number) range[1]).longValue());
+        }
+        em.createNativeQuery("delete from member_staging where batch_id = :batchId")
+                .setParameter("batchId", batchId)
+                .executeUpdate();
+        // 영속성 컨텍스트에 남은 회원은 MERGE 이전 값이다.
+        em.clear();
+
+        long updated = merged - inserted;
+        return new UpsertResult(inserted, updated, byExternalId.size() - merged);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        if (ageLoe != null) {
-            return member.age.loe(ageLoe);
+    /**
+     * 벌크 DML 은 엔티티 리스너를 거치지 않으므로, 실행 전에 영향받을 id 범위를 구해 change_log 에 남긴다.
+     */
+    private void recordBulk(ChangeType changeType, Predicate predicate) {
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(predicate)
+                .fetchOne();
+        Long fromId = range == null ? null : range.get(member.id.min());
+        Long toId = range == null ? null : range.get(member.id.max());
+        if (fromId == null) {
+            return;
         }
-        return null;
+        ChangeLogWriter.writeRange(em.unwrap(Session.class), Member.class.getSimpleName(), changeType, fromId, toId);
     }
 
+    /**
+     * 보관 회원 커서를 현역 회원 커서 뒤에 잇는다.
+     */
+    private static class ConcatIterator implements CloseableIterator<MemberTeamDto> {
+
+        private final CloseableIterator<MemberTeamDto> first;
+        private final CloseableIterator<MemberTeamDto> second;
+
+        ConcatIterator(CloseableIterator<MemberTeamDto> first, CloseableIterator<MemberTeamDto> second) {
+            this.first = first;
+            this.second = second;
+        }
 
+        @Override
+        public boolean hasNext() {
+            return first.hasNext() || second.hasNext();
+        }
+
+        @Override
+        public MemberTeamDto next() {
+            if (first.hasNext()) {
+                return first.next();
+            }
+            if (second.hasNext()) {
+                return second.next();
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void close() {
+            try {
+                first.close();
+            } finally {
+                second.close();
+            }
+        }
+    }
 }
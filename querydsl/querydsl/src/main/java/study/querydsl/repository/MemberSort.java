@@ -0,0 +1,65 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * Pageable 의 Sort 를 Querydsl OrderSpecifier 로 바꾼다.
+ *
+ * 인덱스 순서 그대로 읽을 수 있는 (속성, 방향) 만 허용한다. (인덱스는 db/migration/V1__init.sql 참고)
+ * 각 인덱스는 (컬럼, member_id) 이므로 같은 방향의 member.id 동률 정렬까지 인덱스 순서와 일치한다.
+ * 그 외(팀명, 여러 속성 조합, 인덱스가 없는 방향)는 대용량에서 filesort 가 되므로 거절한다.
+ */
+public final class MemberSort {
+
+    private static final Map<String, ComparableExpressionBase<?>> PROPERTIES = Map.of(
+            "memberId", member.id,
+            "username", member.username,
+            "age", member.age
+    );
+
+    // 정렬용 인덱스가 있는 (속성, 방향)
+    private static final Set<String> INDEXED = Set.of(
+            "memberId:ASC",   // primary key
+            "memberId:DESC",  // idx_member_id_desc
+            "age:ASC",        // idx_member_age
+            "age:DESC",       // idx_member_age_desc
+            "username:ASC"    // idx_member_username
+    );
+
+    private MemberSort() {
+    }
+
+    public static OrderSpecifier<?>[] toOrderSpecifiers(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext()) {
+            return new OrderSpecifier<?>[]{member.id.asc()};
+        }
+
+        Sort.Order order = orders.next();
+        if (orders.hasNext()) {
+            throw new InvalidSortException("only one sort property is supported: " + sort);
+        }
+        ComparableExpressionBase<?> path = PROPERTIES.get(order.getProperty());
+        if (path == null) {
+            throw new InvalidSortException("sort property not allowed: " + order.getProperty() + " (allowed: " + INDEXED + ")");
+        }
+        if (order.isIgnoreCase() || !INDEXED.contains(order.getProperty() + ":" + order.getDirection())) {
+            throw new InvalidSortException("sort is not backed by an index: " + order + " (allowed: " + INDEXED + ")");
+        }
+
+        OrderSpecifier<?> id = order.isAscending() ? member.id.asc() : member.id.desc();
+        if (path == member.id) {
+            return new OrderSpecifier<?>[]{id};
+        }
+        // 같은 값끼리도 페이지 사이에서 순서가 바뀌지 않도록 id 로 동률을 정리한다.
+        return new OrderSpecifier<?>[]{order.isAscending() ? path.asc() : path.desc(), id};
+    }
+}
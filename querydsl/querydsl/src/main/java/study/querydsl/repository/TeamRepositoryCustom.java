@@ -0,0 +1,15 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.TeamMembersDto;
+
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+    // 팀 단위로 페이징한 팀 + 소속 회원 (teamName 이 없으면 전체 팀, 팀 id 순)
+    Page<TeamMembersDto> findTeamsWithMembers(String teamName, Pageable pageable);
+
+    // 이름이 teamName 인 팀들의 id (idx_team_name 으로 찾는다, 이름은 유일하지 않을 수 있다)
+    List<Long> findIdsByName(String teamName);
+}
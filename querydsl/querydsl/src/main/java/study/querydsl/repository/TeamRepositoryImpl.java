@@ -0,0 +1,93 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.timeout.TimeLimitedJPAQueryFactory;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+
+    public TeamRepositoryImpl(EntityManager em) {
+        this.queryFactory = new TimeLimitedJPAQueryFactory(em);
+    }
+
+    /**
+     * team.members 를 fetch join 하면 팀 행이 회원 수만큼 늘어나 DB 에서 페이징할 수 없다.
+     * (Hibernate 는 전체를 메모리로 읽은 뒤 자른다)
+     * 1) 팀만 페이징해서 id 를 구하고
+     * 2) 그 팀들의 회원을 IN 으로 한 번에 읽어 팀별로 묶는다.
+     * 회원은 엔티티가 아니라 값으로 읽으므로 영속성 컨텍스트에 쌓이지 않는다.
+     */
+    @Override
+    public Page<TeamMembersDto> findTeamsWithMembers(String teamName, Pageable pageable) {
+        List<Tuple> teams = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .where(teamNameEq(teamName))
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        Map<Long, TeamMembersDto> byTeamId = new LinkedHashMap<>();
+        for (Tuple row : teams) {
+            byTeamId.put(row.get(team.id), new TeamMembersDto(row.get(team.id), row.get(team.name)));
+        }
+
+        if (!byTeamId.isEmpty()) {
+            List<Tuple> members = queryFactory
+                    .select(member.id, member.username, member.age, member.team.id)
+                    .from(member)
+                    .where(member.team.id.in(byTeamId.keySet()))
+                    .orderBy(member.team.id.asc(), member.id.asc())
+                    .fetch();
+            for (Tuple row : members) {
+                TeamMembersDto dto = byTeamId.get(row.get(member.team.id));
+                dto.getMembers().add(new MemberTeamDto(
+                        row.get(member.id),
+                        row.get(member.username),
+                        row.get(member.age),
+                        dto.getTeamId(),
+                        dto.getTeamName()));
+            }
+        }
+
+        JPAQuery<Long> countQuery = queryFactory
+                .select(team.count())
+                .from(team)
+                .where(teamNameEq(teamName));
+
+        return PageableExecutionUtils.getPage(new ArrayList<>(byTeamId.values()), pageable, countQuery::fetchOne);
+    }
+
+    @Override
+    public List<Long> findIdsByName(String teamName) {
+        return queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .fetch();
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+}
@@ -0,0 +1,26 @@
+package study.querydsl.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 검색 조건 중 해당 조회가 지원하지 않는 조건이 있다. (조용히 무시하지 않는다)
+ * InvalidSortException 과 같은 이유로 RuntimeException 을 상속한다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedConditionException extends RuntimeException {
+
+    public UnsupportedConditionException(String message) {
+        super(message);
+    }
+
+    /**
+     * 보관 회원(member_archive)을 합쳐 주지 못하는 조회는 includeArchived 조건을 거절한다.
+     */
+    public static void rejectIncludeArchived(MemberSearchCondition condition, String method) {
+        if (condition.isIncludeArchived()) {
+            throw new UnsupportedConditionException("includeArchived is not supported by " + method);
+        }
+    }
+}
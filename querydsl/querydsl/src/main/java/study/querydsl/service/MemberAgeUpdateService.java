@@ -0,0 +1,156 @@
+package study.querydsl.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.summary.TeamAgeSummaryWriter;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 회원별 나이 증감을 메모리에 모았다가 같은 증감값끼리 묶어
+ * update member set age = age + ? where id in (...) 로 한 번에 반영한다.
+ *
+ * 동시에 들어오는 요청은 member id 로 나눈 stripe 단위로만 잠그므로 서로 다른 회원끼리는 경합하지 않고,
+ * DB 에는 상대값 UPDATE 만 나가므로 읽고-고치고-쓰는 과정에서 생기는 갱신 손실이 없다.
+ * team_age_summary 도 같은 트랜잭션에서 팀별 증감(증감값 * 회원 수)만 반영해 요약 테이블 전체를 다시 집계하지 않게 한다.
+ */
+@Slf4j
+@Service
+public class MemberAgeUpdateService {
+
+    // IN 절 하나에 넣는 최대 id 수
+    private static final int MAX_IN_SIZE = 1000;
+
+    private final MemberRepository memberRepository;
+    private final TeamAgeSummaryWriter summaryWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Stripe[] stripes;
+
+    public MemberAgeUpdateService(MemberRepository memberRepository,
+                                  TeamAgeSummaryWriter summaryWriter,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${member.age-update.stripes:16}") int stripeCount) {
+        this.memberRepository = memberRepository;
+        this.summaryWriter = summaryWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void increment(long memberId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        Stripe stripe = stripes[Math.floorMod(Long.hashCode(memberId), stripes.length)];
+        synchronized (stripe) {
+            stripe.pending.merge(memberId, delta, Integer::sum);
+        }
+    }
+
+    /**
+     * 반영 대기 중인 회원 수
+     */
+    public int pendingCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.pending.size();
+            }
+        }
+        return count;
+    }
+
+    @Scheduled(fixedDelayString = "${member.age-update.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("member age flush failed, will retry", e);
+        }
+    }
+
+    /**
+     * 종료(재배포) 때 마지막 주기 이후에 모인 증감을 반영한다.
+     */
+    @PreDestroy
+    public void close() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("member age flush on shutdown failed, {} members' deltas lost", pendingCount(), e);
+        }
+    }
+
+    /**
+     * 모아둔 증감을 반영하고 실행한 UPDATE 문 수를 반환한다.
+     * 실패하면 꺼낸 증감을 다시 돌려놓아 다음 flush 때 반영한다.
+     */
+    public int flush() {
+        Map<Long, Integer> drained = drain();
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        // 증감값별로 회원 id 를 묶는다.
+        Map<Integer, List<Long>> byDelta = new TreeMap<>();
+        drained.forEach((memberId, delta) -> {
+            if (delta != 0) {
+                byDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(memberId);
+            }
+        });
+
+        try {
+            Integer statements = transactionTemplate.execute(status -> {
+                int count = 0;
+                Map<Long, Long> sumDeltas = new HashMap<>();
+                for (Map.Entry<Integer, List<Long>> entry : byDelta.entrySet()) {
+                    int delta = entry.getKey();
+                    List<Long> ids = entry.getValue();
+                    for (int from = 0; from < ids.size(); from += MAX_IN_SIZE) {
+                        memberRepository.bulkAgeDeltaByIds(delta, ids.subList(from, Math.min(ids.size(), from + MAX_IN_SIZE)))
+                                .forEach((teamId, members) -> sumDeltas.merge(teamId, delta * members, Long::sum));
+                        count++;
+                    }
+                }
+                summaryWriter.addAgeSums(sumDeltas);
+                return count;
+            });
+            return statements == null ? 0 : statements;
+        } catch (RuntimeException e) {
+            drained.forEach(this::increment);
+            throw e;
+        }
+    }
+
+    private Map<Long, Integer> drain() {
+        Map<Long, Integer> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<Long, Integer> pending;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                pending = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            drained.putAll(pending);
+        }
+        return drained;
+    }
+
+    private static class Stripe {
+        private Map<Long, Integer> pending = new HashMap<>();
+    }
+}
@@ -0,0 +1,33 @@
+package study.querydsl.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSyncRecord;
+import study.querydsl.dto.UpsertResult;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.Collection;
+
+/**
+ * 상위 시스템의 회원 목록을 한 트랜잭션에서 일괄 반영한다.
+ * 건마다 조회-비교-저장하지 않고 스테이징 테이블 + MERGE 한 번으로 처리한다. (MemberRepositoryImpl.upsertMembers)
+ */
+@Slf4j
+@Service
+public class MemberSyncService {
+
+    private final MemberRepository memberRepository;
+
+    public MemberSyncService(MemberRepository memberRepository) {
+        this.memberRepository = memberRepository;
+    }
+
+    @Transactional
+    public UpsertResult sync(Collection<MemberSyncRecord> records) {
+        long start = System.nanoTime();
+        UpsertResult result = memberRepository.upsertMembers(records);
+        log.info("member sync: records={}, {} in {}ms", records.size(), result, (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+}
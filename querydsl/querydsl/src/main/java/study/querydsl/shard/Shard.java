@@ -0,0 +1,27 @@
+package study.querydsl.shard;
+
+import com.querydsl.sql.SQLQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+/**
+ * 샤드 하나 (번호, 커넥션 풀, 그 풀 위의 Querydsl SQL 팩토리)
+ */
+@Getter
+public class Shard {
+
+    private final int index;
+    private final HikariDataSource dataSource;
+    private final SQLQueryFactory queryFactory;
+
+    Shard(int index, HikariDataSource dataSource, SQLQueryFactory queryFactory) {
+        this.index = index;
+        this.dataSource = dataSource;
+        this.queryFactory = queryFactory;
+    }
+
+    @Override
+    public String toString() {
+        return "shard-" + index;
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.shard;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberSort;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Function;
+
+import static study.querydsl.reactive.SMember.member;
+
+/**
+ * 샤드별 ORDER BY 와, 샤드 결과를 합칠 때 쓰는 같은 순서의 Comparator.
+ *
+ * 허용하는 정렬은 MemberSort 와 같고(검증도 MemberSort 에 맡긴다), 항상 member_id 동률 정렬이 붙어
+ * 샤드 사이에서도 전체 순서가 하나로 정해진다. null 은 H2 기본값처럼 가장 작은 값으로 본다.
+ */
+final class ShardSort {
+
+    private static final Map<String, ComparableExpressionBase<?>> COLUMNS = Map.of(
+            "id", member.id,
+            "username", member.username,
+            "age", member.age
+    );
+
+    private static final Map<String, Function<MemberTeamDto, Comparable<?>>> VALUES = Map.of(
+            "id", MemberTeamDto::getMemberId,
+            "username", MemberTeamDto::getUsername,
+            "age", MemberTeamDto::getAge
+    );
+
+    private final OrderSpecifier<?>[] orderSpecifiers;
+    private final Comparator<MemberTeamDto> comparator;
+
+    private ShardSort(OrderSpecifier<?>[] orderSpecifiers, Comparator<MemberTeamDto> comparator) {
+        this.orderSpecifiers = orderSpecifiers;
+        this.comparator = comparator;
+    }
+
+    static ShardSort of(Sort sort) {
+        OrderSpecifier<?>[] jpaOrders = MemberSort.toOrderSpecifiers(sort);
+        OrderSpecifier<?>[] orders = new OrderSpecifier<?>[jpaOrders.length];
+        Comparator<MemberTeamDto> comparator = null;
+        for (int i = 0; i < jpaOrders.length; i++) {
+            String property = ((Path<?>) jpaOrders[i].getTarget()).getMetadata().getName();
+            boolean ascending = jpaOrders[i].isAscending();
+            ComparableExpressionBase<?> column = COLUMNS.get(property);
+            orders[i] = ascending ? column.asc() : column.desc();
+
+            Comparator<MemberTeamDto> next = comparing(VALUES.get(property));
+            next = ascending ? next : next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return new ShardSort(orders, comparator);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<MemberTeamDto> comparing(Function<MemberTeamDto, Comparable<?>> value) {
+        return Comparator.comparing((Function) value, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    OrderSpecifier<?>[] getOrderSpecifiers() {
+        return orderSpecifiers;
+    }
+
+    Comparator<MemberTeamDto> getComparator() {
+        return comparator;
+    }
+}
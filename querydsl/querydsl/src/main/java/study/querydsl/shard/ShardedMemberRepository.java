@@ -0,0 +1,191 @@
+package study.querydsl.shard;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.sql.SQLExpressions;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.condition.ConditionPredicates;
+import study.querydsl.dialect.MemberFunctions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static study.querydsl.reactive.SMember.member;
+import static study.querydsl.reactive.STeam.team;
+import static study.querydsl.repository.UnsupportedConditionException.rejectIncludeArchived;
+
+/**
+ * 팀 id 로 나눈 여러 DB 에 걸친 회원 저장/검색.
+ *
+ * 회원은 자기 팀과 같은 샤드에 두므로 member-team 조인은 샤드 안에서 끝난다.
+ * 검색은 관련 샤드(teamIds 조건이 있으면 그 팀들의 샤드, 없으면 전부)에 병렬로 보내고 결과를 합쳐 정렬한다.
+ * 샤드에는 member_archive 가 없으므로 includeArchived 조건은 UnsupportedConditionException 으로 거절한다.
+ */
+public class ShardedMemberRepository {
+
+    private static final String SEQUENCE = "hibernate_sequence";
+
+    private final Shards shards;
+    private final ConditionPredicates<MemberSearchCondition> conditions = ConditionPredicates.of(MemberSearchCondition.class, Map.of(
+            "username", member.username,
+            "teamName", team.name,
+            "age", member.age,
+            "teamId", member.teamId,
+            "normalizedUsername", MemberFunctions.normalizeSql(member.username)));
+
+    public ShardedMemberRepository(Shards shards) {
+        this.shards = shards;
+    }
+
+    public Long saveTeam(String name) {
+        Shard shard = shards.nextForNewTeam();
+        long id = nextId(shard);
+        shard.getQueryFactory().insert(team)
+                .set(team.id, id)
+                .set(team.name, name)
+                .execute();
+        return id;
+    }
+
+    public Long saveMember(String username, int age, Long teamId) {
+        Shard shard = shards.forMember(teamId);
+        long id = nextId(shard);
+        shard.getQueryFactory().insert(member)
+                .set(member.id, id)
+                .set(member.username, username)
+                .set(member.age, age)
+                .set(member.teamId, teamId)
+                .execute();
+        return id;
+    }
+
+    /**
+     * 샤드마다 시퀀스가 따로 있으므로 (시퀀스 * 샤드 수 + 샤드 번호) 로 전체에서 겹치지 않게 만든다.
+     */
+    private long nextId(Shard shard) {
+        Long sequence = shard.getQueryFactory().select(SQLExpressions.nextval(SEQUENCE)).fetchOne();
+        return sequence * shards.size() + shard.getIndex();
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        rejectIncludeArchived(condition, "sharded search");
+        if (conditions.isContradictory(condition)) {
+            return new ArrayList<>();
+        }
+        Predicate[] where = conditions.toPredicates(condition);
+        List<List<MemberTeamDto>> results = shards.fanOut(targets(condition), shard -> select(shard.getQueryFactory())
+                .where(where)
+                .orderBy(member.id.asc())
+                .fetch());
+        return merge(results, Comparator.comparing(MemberTeamDto::getMemberId), 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * 오프셋 페이징. 어느 샤드의 행이 전체 [offset, offset + size) 에 들어갈지 모르므로
+     * 샤드마다 같은 정렬로 앞에서 offset + size 행을 가져와 합친 뒤 offset 만큼 건너뛴다.
+     * 샤드당 읽는 양이 offset 에 비례하므로 깊은 페이지는 searchAfter 를 쓴다.
+     */
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        rejectIncludeArchived(condition, "sharded searchPage");
+        if (conditions.isContradictory(condition)) {
+            return new PageImpl<>(new ArrayList<>(), pageable, 0);
+        }
+        ShardSort sort = ShardSort.of(pageable.getSort());
+        Predicate[] where = conditions.toPredicates(condition);
+        long window = pageable.getOffset() + pageable.getPageSize();
+
+        List<ShardSlice> slices = shards.fanOut(targets(condition), shard -> {
+            SQLQueryFactory queryFactory = shard.getQueryFactory();
+            List<MemberTeamDto> content = select(queryFactory)
+                    .where(where)
+                    .orderBy(sort.getOrderSpecifiers())
+                    .limit(window)
+                    .fetch();
+            Long total = queryFactory
+                    .select(Wildcard.count)
+                    .from(member)
+                    .leftJoin(team).on(member.teamId.eq(team.id))
+                    .where(where)
+                    .fetchOne();
+            return new ShardSlice(content, total == null ? 0 : total);
+        });
+
+        List<MemberTeamDto> content = merge(slices.stream().map(slice -> slice.content).collect(Collectors.toList()),
+                sort.getComparator(), pageable.getOffset(), pageable.getPageSize());
+        long total = slices.stream().mapToLong(slice -> slice.total).sum();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * 키셋 페이징. member_id 가 lastMemberId 보다 큰 회원을 id 순으로 size 명.
+     * 샤드마다 size 행만 읽으면 되므로 페이지 깊이와 상관없이 비용이 같다.
+     */
+    public List<MemberTeamDto> searchAfter(MemberSearchCondition condition, Long lastMemberId, int size) {
+        rejectIncludeArchived(condition, "sharded searchAfter");
+        if (conditions.isContradictory(condition)) {
+            return new ArrayList<>();
+        }
+        Predicate[] where = conditions.toPredicates(condition);
+        List<List<MemberTeamDto>> results = shards.fanOut(targets(condition), shard -> select(shard.getQueryFactory())
+                .where(where)
+                .where(lastMemberId == null ? null : member.id.gt(lastMemberId))
+                .orderBy(member.id.asc())
+                .limit(size)
+                .fetch());
+        return merge(results, Comparator.comparing(MemberTeamDto::getMemberId), 0, size);
+    }
+
+    /**
+     * teamIds 조건이 있으면 그 팀들이 있는 샤드만 본다.
+     */
+    List<Shard> targets(MemberSearchCondition condition) {
+        if (condition.getTeamIds() == null) {
+            return shards.all();
+        }
+        Set<Shard> targets = new LinkedHashSet<>();
+        for (Long teamId : condition.getTeamIds()) {
+            targets.add(shards.forTeam(teamId));
+        }
+        return new ArrayList<>(targets);
+    }
+
+    private static SQLQuery<MemberTeamDto> select(SQLQueryFactory queryFactory) {
+        return queryFactory
+                .select(Projections.constructor(MemberTeamDto.class,
+                        member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id));
+    }
+
+    private static List<MemberTeamDto> merge(List<List<MemberTeamDto>> results, Comparator<MemberTeamDto> comparator,
+                                             long offset, long limit) {
+        return results.stream()
+                .flatMap(List::stream)
+                .sorted(comparator)
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static class ShardSlice {
+        private final List<MemberTeamDto> content;
+        private final long total;
+
+        private ShardSlice(List<MemberTeamDto> content, long total) {
+            this.content = content;
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.shard;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * sharding.enabled=true 일 때 sharding.urls 의 DB 마다 풀을 만들고 스키마(db/migration)를 올린다.
+ *
+ * DataSource 를 빈으로 등록하면 기본 DataSource 자동 구성(JPA)이 꺼지므로 ReactiveConfig 처럼 풀은 Shards 안에만 둔다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final com.querydsl.sql.Configuration SQL_CONFIGURATION =
+            new com.querydsl.sql.Configuration(H2Templates.builder().build());
+
+    @Bean
+    public Shards shards(@Value("${sharding.urls}") String[] urls,
+                         @Value("${sharding.username:sa}") String username,
+                         @Value("${sharding.password:}") String password,
+                         @Value("${sharding.pool-size:4}") int poolSize) {
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setJdbcUrl(urls[i].trim());
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(poolSize);
+
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .baselineOnMigrate(true)
+                    .baselineVersion("0")
+                    .load()
+                    .migrate();
+            shards.add(new Shard(i, dataSource, new SQLQueryFactory(SQL_CONFIGURATION, dataSource)));
+        }
+        return new Shards(shards);
+    }
+
+    @Bean
+    public ShardedMemberRepository shardedMemberRepository(Shards shards) {
+        return new ShardedMemberRepository(shards);
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 팀 id 로 샤드를 고르고, 여러 샤드에 같은 질의를 병렬로 던진다.
+ *
+ * 팀 id 는 (시퀀스 * 샤드 수 + 샤드 번호) 로 만들기 때문에 teamId mod 샤드 수 가 곧 그 팀의 샤드다.
+ * 따라서 라우팅 테이블이 필요 없지만, 샤드 수를 바꾸려면 데이터를 다시 나눠야 한다.
+ */
+public class Shards implements DisposableBean {
+
+    private final List<Shard> shards;
+    private final ExecutorService executor;
+    private final AtomicInteger nextTeamShard = new AtomicInteger();
+
+    Shards(List<Shard> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("sharding.urls is empty");
+        }
+        this.shards = List.copyOf(shards);
+        this.executor = Executors.newFixedThreadPool(shards.size());
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    public Shard forTeam(long teamId) {
+        return shards.get(Math.floorMod(teamId, shards.size()));
+    }
+
+    /**
+     * 팀이 없는 회원은 0번 샤드에 둔다.
+     */
+    public Shard forMember(Long teamId) {
+        return teamId == null ? shards.get(0) : forTeam(teamId);
+    }
+
+    /**
+     * 새 팀은 샤드에 돌아가며 배정한다.
+     */
+    Shard nextForNewTeam() {
+        return shards.get(Math.floorMod(nextTeamShard.getAndIncrement(), shards.size()));
+    }
+
+    /**
+     * targets 에 query 를 병렬로 실행하고 샤드 순서대로 결과를 돌려준다. (샤드가 하나면 호출 스레드에서 실행)
+     */
+    public <T> List<T> fanOut(Collection<Shard> targets, Function<Shard, T> query) {
+        if (targets.size() == 1) {
+            return List.of(query.apply(targets.iterator().next()));
+        }
+        List<Future<T>> futures = new ArrayList<>();
+        for (Shard shard : targets) {
+            futures.add(executor.submit(() -> query.apply(shard)));
+        }
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("shard query interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("shard query failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        shards.forEach(shard -> shard.getDataSource().close());
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.Optional;
+
+/**
+ * 회원 단건 조회. 스냅샷(MemberSnapshotService)이 최신이면 DB 를 거치지 않고 스냅샷에서 찾는다.
+ * 스냅샷에 반영되지 않은 변경이 있으면(dirty) 다시 적재될 때까지 DB 에서 읽는다.
+ * 변경은 change_log 로 알게 되므로 전달 주기(changelog.poll-interval-ms)만큼은 늦을 수 있다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberLookupService {
+
+    private final MemberSnapshotService snapshotService;
+    private final MemberRepository memberRepository;
+
+    public Optional<MemberTeamDto> findById(long id) {
+        if (snapshotService.isDirty()) {
+            return memberRepository.searchByIdRange(id, id, 1).stream().findFirst();
+        }
+        MemberSnapshot snapshot = snapshotService.current();
+        int rec = snapshot.findById(id);
+        if (rec == MemberSnapshot.NOT_FOUND) {
+            return Optional.empty();
+        }
+        long teamId = snapshot.teamId(rec);
+        return Optional.of(new MemberTeamDto(snapshot.id(rec), snapshot.username(rec), snapshot.age(rec),
+                teamId == MemberSnapshot.NO_TEAM ? null : teamId, snapshot.teamName(rec)));
+    }
+}
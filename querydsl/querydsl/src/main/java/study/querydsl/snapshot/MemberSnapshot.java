@@ -0,0 +1,278 @@
+package study.querydsl.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Member(id, username, age, teamId) 를 direct ByteBuffer 에 저장한 읽기 전용 스냅샷.
+ * id / username 해시 인덱스도 off-heap IntBuffer 의 open addressing(선형 탐사) 테이블이라
+ * 조회 시 DB 나 힙 객체를 거치지 않는다. 생성 후에는 변경되지 않으므로 여러 스레드가 동시에 읽어도 된다.
+ * 팀 이름은 팀 수만큼만 있으므로 힙 Map 으로 둔다. (teamName)
+ *
+ * 레코드 레이아웃 (RECORD_SIZE 바이트)
+ * id(8) | teamId(8, 없으면 NO_TEAM) | age(4) | usernameHash(4) | nameOffset(4) | nameLength(4, null 이면 -1)
+ */
+public final class MemberSnapshot {
+
+    public static final long NO_TEAM = -1L;
+    public static final int NOT_FOUND = -1;
+
+    static final int RECORD_SIZE = 32;
+    private static final int ID = 0;
+    private static final int TEAM_ID = 8;
+    private static final int AGE = 16;
+    private static final int NAME_HASH = 20;
+    private static final int NAME_OFFSET = 24;
+    private static final int NAME_LENGTH = 28;
+
+    private final ByteBuffer records;
+    private final ByteBuffer names;
+    // 슬롯 값은 레코드 번호 + 1 (0 은 빈 슬롯)
+    private final IntBuffer idIndex;
+    private final IntBuffer nameIndex;
+    private final int mask;
+    private final int size;
+    private final Map<Long, String> teamNames;
+
+    private MemberSnapshot(ByteBuffer records, ByteBuffer names, int size, Map<Long, String> teamNames) {
+        this.records = records;
+        this.names = names;
+        this.size = size;
+        this.teamNames = teamNames;
+        int capacity = tableCapacity(size);
+        this.mask = capacity - 1;
+        this.idIndex = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+        this.nameIndex = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+        for (int rec = 0; rec < size; rec++) {
+            insert(idIndex, mix(id(rec)), rec);
+            if (records.getInt(offset(rec) + NAME_LENGTH) >= 0) {
+                insert(nameIndex, mix(records.getInt(offset(rec) + NAME_HASH)), rec);
+            }
+        }
+    }
+
+    public static MemberSnapshot empty() {
+        return new Builder(0).build();
+    }
+
+    // 적재율 50% 이하
+    private static int tableCapacity(int size) {
+        int capacity = 2;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void insert(IntBuffer table, int hash, int rec) {
+        int slot = hash & mask;
+        while (table.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.put(slot, rec + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * id 에 해당하는 레코드 번호, 없으면 NOT_FOUND
+     */
+    public int findById(long id) {
+        int slot = mix(Long.hashCode(id)) & mask;
+        int value;
+        while ((value = idIndex.get(slot)) != 0) {
+            int rec = value - 1;
+            if (id(rec) == id) {
+                return rec;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * username 이 같은 모든 레코드 번호를 action 에 넘긴다. (username 은 유일하지 않다)
+     */
+    public void forEachByUsername(String username, IntConsumer action) {
+        if (username == null) {
+            return;
+        }
+        byte[] key = username.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        int slot = mix(hash) & mask;
+        int value;
+        while ((value = nameIndex.get(slot)) != 0) {
+            int rec = value - 1;
+            if (records.getInt(offset(rec) + NAME_HASH) == hash && nameEquals(rec, key)) {
+                action.accept(rec);
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * username 이 같은 첫 번째 레코드 번호, 없으면 NOT_FOUND
+     */
+    public int findFirstByUsername(String username) {
+        int[] found = {NOT_FOUND};
+        forEachByUsername(username, rec -> {
+            if (found[0] == NOT_FOUND) {
+                found[0] = rec;
+            }
+        });
+        return found[0];
+    }
+
+    public long id(int rec) {
+        return records.getLong(offset(rec) + ID);
+    }
+
+    public int age(int rec) {
+        return records.getInt(offset(rec) + AGE);
+    }
+
+    public long teamId(int rec) {
+        return records.getLong(offset(rec) + TEAM_ID);
+    }
+
+    /**
+     * 팀이 없거나 스냅샷에 없는 팀이면 null
+     */
+    public String teamName(int rec) {
+        long teamId = teamId(rec);
+        return teamId == NO_TEAM ? null : teamNames.get(teamId);
+    }
+
+    /**
+     * 힙에 String 을 만든다. 비교만 필요하면 forEachByUsername 을 쓴다.
+     */
+    public String username(int rec) {
+        int length = records.getInt(offset(rec) + NAME_LENGTH);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = names.duplicate();
+        view.position(records.getInt(offset(rec) + NAME_OFFSET));
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean nameEquals(int rec, byte[] key) {
+        int base = offset(rec);
+        if (records.getInt(base + NAME_LENGTH) != key.length) {
+            return false;
+        }
+        int nameOffset = records.getInt(base + NAME_OFFSET);
+        for (int i = 0; i < key.length; i++) {
+            if (names.get(nameOffset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int offset(int rec) {
+        return rec * RECORD_SIZE;
+    }
+
+    static int hash(byte[] bytes) {
+        int h = 1;
+        for (byte b : bytes) {
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    // 연속된 id 가 같은 클러스터에 몰리지 않도록 섞는다. (murmur3 finalizer)
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private int mix(long id) {
+        return mix(Long.hashCode(id));
+    }
+
+    /**
+     * 행을 순서대로 추가한 뒤 build() 로 인덱스를 만든다. 버퍼는 부족하면 두 배로 늘린다.
+     */
+    public static final class Builder {
+
+        private ByteBuffer records;
+        private ByteBuffer names;
+        private int size;
+        private final Map<Long, String> teamNames = new HashMap<>();
+
+        public Builder(int expectedSize) {
+            this.records = ByteBuffer.allocateDirect(Math.max(1, expectedSize) * RECORD_SIZE);
+            this.names = ByteBuffer.allocateDirect(Math.max(16, expectedSize * 16));
+        }
+
+        public Builder add(long id, String username, int age, Long teamId) {
+            records = ensure(records, RECORD_SIZE);
+            int base = records.position();
+            records.putLong(base + ID, id);
+            records.putLong(base + TEAM_ID, teamId == null ? NO_TEAM : teamId);
+            records.putInt(base + AGE, age);
+            if (username == null) {
+                records.putInt(base + NAME_HASH, 0);
+                records.putInt(base + NAME_OFFSET, 0);
+                records.putInt(base + NAME_LENGTH, -1);
+            } else {
+                byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+                names = ensure(names, bytes.length);
+                records.putInt(base + NAME_HASH, hash(bytes));
+                records.putInt(base + NAME_OFFSET, names.position());
+                records.putInt(base + NAME_LENGTH, bytes.length);
+                names.put(bytes);
+            }
+            records.position(base + RECORD_SIZE);
+            size++;
+            return this;
+        }
+
+        public Builder team(long teamId, String name) {
+            teamNames.put(teamId, name);
+            return this;
+        }
+
+        public MemberSnapshot build() {
+            return new MemberSnapshot(trim(records), trim(names), size, Collections.unmodifiableMap(new HashMap<>(teamNames)));
+        }
+
+        private static ByteBuffer ensure(ByteBuffer buffer, int needed) {
+            if (buffer.remaining() >= needed) {
+                return buffer;
+            }
+            int capacity = buffer.capacity();
+            while (capacity - buffer.position() < needed) {
+                capacity <<= 1;
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+            buffer.flip();
+            grown.put(buffer);
+            return grown;
+        }
+
+        // 남는 용량을 돌려주고 읽기 전용으로 만든다.
+        private static ByteBuffer trim(ByteBuffer buffer) {
+            buffer.flip();
+            ByteBuffer exact = ByteBuffer.allocateDirect(Math.max(1, buffer.remaining()));
+            exact.put(buffer);
+            exact.clear();
+            return exact.asReadOnlyBuffer();
+        }
+    }
+}
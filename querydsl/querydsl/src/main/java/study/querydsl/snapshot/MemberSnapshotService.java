@@ -0,0 +1,119 @@
+package study.querydsl.snapshot;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.changelog.ChangeEvent;
+import study.querydsl.changelog.ChangeLogConsumer;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * MemberSnapshot 을 DB 에서 다시 만들어 참조를 통째로 교체한다.
+ * 읽는 쪽은 current() 로 받은 스냅샷 하나만 보므로 재적재 중에도 일관된 값을 본다.
+ * Member/Team 변경 이벤트를 받으면 dirty 로 표시해 두었다가 주기적으로 다시 적재한다.
+ * 적재 중에 들어온 변경은 새 스냅샷에 빠졌을 수 있으므로 다음 적재가 끝날 때까지 dirty 로 남는다.
+ */
+@Slf4j
+@Component
+public class MemberSnapshotService implements ChangeLogConsumer {
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+
+    private volatile MemberSnapshot current = MemberSnapshot.empty();
+    // 받은 변경 수와, current 를 적재하기 시작할 때까지 받은 변경 수 (처음에는 적재 전이므로 dirty)
+    private final AtomicLong changes = new AtomicLong(1);
+    private volatile long loadedChanges;
+
+    public MemberSnapshotService(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public MemberSnapshot current() {
+        return current;
+    }
+
+    /**
+     * current() 에 아직 반영되지 않은 변경이 있으면 true
+     */
+    public boolean isDirty() {
+        return changes.get() != loadedChanges;
+    }
+
+    @Scheduled(fixedDelayString = "${snapshot.reload-interval-ms:10000}")
+    public void reloadIfDirty() {
+        if (isDirty()) {
+            reload();
+        }
+    }
+
+    public synchronized MemberSnapshot reload() {
+        // 적재 도중 들어온 변경은 다음 주기에 다시 반영되도록 시작 시점의 변경 수까지만 반영된 것으로 본다.
+        long seen = changes.get();
+        long start = System.currentTimeMillis();
+        MemberSnapshot snapshot = readOnlyTx.execute(status -> load());
+        current = snapshot;
+        loadedChanges = seen;
+        log.info("member snapshot reloaded. size={}, elapsed={}ms", snapshot.size(), System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    private MemberSnapshot load() {
+        MemberSnapshot.Builder builder = new MemberSnapshot.Builder(CHUNK_SIZE);
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+            builder.team(row.get(team.id), row.get(team.name));
+        }
+        long cursor = Long.MIN_VALUE;
+        while (true) {
+            // id 기준으로 이어서 읽는다. (offset 페이징보다 뒤로 갈수록 느려지지 않음)
+            List<Tuple> chunk = queryFactory
+                    .select(member.id, member.username, member.age, member.team.id)
+                    .from(member)
+                    .where(member.id.gt(cursor))
+                    .orderBy(member.id.asc())
+                    .limit(CHUNK_SIZE)
+                    .fetch();
+            for (Tuple row : chunk) {
+                builder.add(row.get(member.id), row.get(member.username), row.get(member.age), row.get(member.team.id));
+            }
+            if (chunk.size() < CHUNK_SIZE) {
+                return builder.build();
+            }
+            cursor = chunk.get(chunk.size() - 1).get(member.id);
+        }
+    }
+
+    @Override
+    public String consumerName() {
+        return "member-snapshot";
+    }
+
+    @Override
+    public boolean perInstance() {
+        return true;
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (Member.class.getSimpleName().equals(event.getEntityType())
+                || Team.class.getSimpleName().equals(event.getEntityType())) {
+            changes.incrementAndGet();
+        }
+    }
+}
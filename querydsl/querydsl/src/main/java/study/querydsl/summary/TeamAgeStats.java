@@ -0,0 +1,32 @@
+package study.querydsl.summary;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 팀 하나의 회원 나이 집계 (team_age_summary 한 행 + 팀 이름)
+ */
+@Getter
+@ToString
+public class TeamAgeStats {
+
+    private final Long teamId;
+    private final String teamName;
+    private final long count;
+    private final long sum;
+    private final Integer min;
+    private final Integer max;
+
+    public TeamAgeStats(Long teamId, String teamName, long count, long sum, Integer min, Integer max) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    public Double getAverage() {
+        return count == 0 ? null : (double) sum / count;
+    }
+}
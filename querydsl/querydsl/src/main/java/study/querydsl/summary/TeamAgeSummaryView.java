@@ -0,0 +1,261 @@
+package study.querydsl.summary;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.QTuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.changelog.ChangeEvent;
+import study.querydsl.changelog.ChangeLogConsumer;
+import study.querydsl.changelog.ChangeLogWriter;
+import study.querydsl.changelog.ChangeType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * team_age_summary 를 메모리에 들고 있다가 팀별 나이 집계를 group by 없이 돌려준다.
+ *
+ * - 엔티티 변경: TeamAgeSummaryWriter 가 커밋 후 바뀐 팀의 행만 다시 읽게 한다. (PK 조회)
+ * - 벌크 DML: change_log 이벤트가 오면 dirty 로 표시했다가 주기적으로 테이블부터 다시 집계한다.
+ *   BULK_AGE_ADD 는 TeamAgeSummaryWriter.addAgeSums 가 팀별로 반영하므로 다시 집계하지 않는다.
+ * 호출한 쪽 트랜잭션에 커밋 전 Member/Team 변경이 있으면 그 변경이 보여야 하므로 집계 쿼리를 그대로 실행한다.
+ *
+ * 다시 집계(delete + insert)가 TeamAgeSummaryWriter 의 MERGE 와 겹치면 PK 충돌이나 변경 유실이 생기므로
+ * writer 는 트랜잭션이 끝날 때까지 rebuildLock 의 read lock 을, 다시 집계는 write lock 을 잡는다.
+ * 다시 집계는 tryLock 으로만 잡아 쓰기 트랜잭션을 막지 않고, 못 잡으면 다음 주기에 다시 시도한다.
+ */
+@Slf4j
+@Component
+public class TeamAgeSummaryView implements ChangeLogConsumer {
+
+    // QuerydslBasicTest.group 과 같은 select 절
+    private static final QTuple AVERAGE_BY_TEAM_NAME = Projections.tuple(team.name, member.age.avg());
+
+    private static final String SELECT_SQL =
+            "select s.team_id, t.name, s.member_count, s.age_sum, s.age_min, s.age_max " +
+            "from team_age_summary s join team t on t.team_id = s.team_id";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate tx;
+
+    private final Map<Long, TeamAgeStats> teams = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    public TeamAgeSummaryView(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        // 커밋 후 콜백에서도 부르므로 항상 새 트랜잭션으로 읽는다.
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * select team.name, avg(member.age) from member join team group by team.name 과 같은 튜플 (팀 이름 순)
+     */
+    public List<Tuple> averageAgeByTeamName() {
+        Map<String, long[]> byName = new LinkedHashMap<>();
+        for (TeamAgeStats stats : teams()) {
+            long[] countAndSum = byName.computeIfAbsent(stats.getTeamName(), name -> new long[2]);
+            countAndSum[0] += stats.getCount();
+            countAndSum[1] += stats.getSum();
+        }
+        List<Tuple> result = new ArrayList<>(byName.size());
+        byName.forEach((name, countAndSum) ->
+                result.add(AVERAGE_BY_TEAM_NAME.newInstance(name, (double) countAndSum[1] / countAndSum[0])));
+        return result;
+    }
+
+    /**
+     * 회원이 있는 팀들의 집계 (팀 이름, id 순)
+     */
+    public List<TeamAgeStats> teams() {
+        Collection<TeamAgeStats> values = hasPendingChanges()
+                ? aggregate().values()
+                : loadedTeams().values();
+        return values.stream()
+                .sorted(Comparator.comparing(TeamAgeStats::getTeamName, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(TeamAgeStats::getTeamId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 회원이 없는 팀이면 null
+     */
+    public TeamAgeStats team(Long teamId) {
+        if (hasPendingChanges()) {
+            return aggregate().get(teamId);
+        }
+        return loadedTeams().get(teamId);
+    }
+
+    /**
+     * flush 된 변경은 change_log 기록으로, flush 전 변경은 세션의 dirty 여부로 확인한다.
+     * (읽기 전용 트랜잭션이면 둘 다 없으므로 메모리 값을 쓴다)
+     */
+    private boolean hasPendingChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        return ChangeLogWriter.writtenInTransaction(Member.class.getSimpleName())
+                || ChangeLogWriter.writtenInTransaction(Team.class.getSimpleName())
+                || em.unwrap(Session.class).isDirty();
+    }
+
+    /**
+     * TeamAgeSummaryWriter 가 요약 테이블을 고치는 동안 잡는 lock
+     */
+    Lock incrementalLock() {
+        return rebuildLock.readLock();
+    }
+
+    private Map<Long, TeamAgeStats> loadedTeams() {
+        if (!loaded) {
+            reloadAll();
+        }
+        return teams;
+    }
+
+    @Scheduled(fixedDelayString = "${team-age-summary.rebuild-interval-ms:1000}")
+    public void rebuildIfDirty() {
+        if (dirty) {
+            rebuild();
+        }
+    }
+
+    /**
+     * team_age_summary 를 member 테이블에서 다시 집계하고 메모리도 새로 채운다.
+     * 요약 테이블을 고치는 중인 트랜잭션이 있으면 하지 않고 false 를 돌려준다. (dirty 로 남겨 다음 주기에 다시 시도)
+     */
+    public synchronized boolean rebuild() {
+        Lock lock = rebuildLock.writeLock();
+        if (!lock.tryLock()) {
+            dirty = true;
+            log.debug("team age summary rebuild deferred. incremental writes in progress");
+            return false;
+        }
+        try {
+            dirty = false;
+            tx.executeWithoutResult(status -> {
+                em.createNativeQuery("delete from team_age_summary").executeUpdate();
+                em.createNativeQuery("insert into team_age_summary (team_id, member_count, age_sum, age_min, age_max) " +
+                        "select team_id, count(*), sum(age), min(age), max(age) from member " +
+                        "where team_id is not null group by team_id").executeUpdate();
+            });
+        } finally {
+            lock.unlock();
+        }
+        reloadAll();
+        log.debug("team age summary rebuilt. teams={}", teams.size());
+        return true;
+    }
+
+    synchronized void reload(Set<Long> teamIds) {
+        if (teamIds.isEmpty() || !loaded) {
+            return;
+        }
+        Map<Long, TeamAgeStats> rows = tx.execute(status -> select(" where s.team_id in (:teamIds)", teamIds));
+        for (Long teamId : teamIds) {
+            TeamAgeStats stats = rows.get(teamId);
+            if (stats == null) {
+                teams.remove(teamId);
+            } else {
+                teams.put(teamId, stats);
+            }
+        }
+    }
+
+    private synchronized void reloadAll() {
+        Map<Long, TeamAgeStats> rows = tx.execute(status -> select("", null));
+        teams.keySet().retainAll(rows.keySet());
+        teams.putAll(rows);
+        loaded = true;
+    }
+
+    void markDirty() {
+        dirty = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, TeamAgeStats> select(String where, Set<Long> teamIds) {
+        Query query = em.createNativeQuery(SELECT_SQL + where);
+        if (teamIds != null) {
+            query.setParameter("teamIds", teamIds);
+        }
+        Map<Long, TeamAgeStats> result = new LinkedHashMap<>();
+        for (Object[] row : (List<Object[]>) query.getResultList()) {
+            Long teamId = ((Number) row[0]).longValue();
+            result.put(teamId, new TeamAgeStats(teamId, (String) row[1],
+                    ((Number) row[2]).longValue(), ((Number) row[3]).longValue(),
+                    row[4] == null ? null : ((Number) row[4]).intValue(),
+                    row[5] == null ? null : ((Number) row[5]).intValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 요약 테이블 없이 바로 집계 (현재 트랜잭션의 커밋 전 변경까지 보인다)
+     */
+    private Map<Long, TeamAgeStats> aggregate() {
+        Map<Long, TeamAgeStats> result = new LinkedHashMap<>();
+        for (Tuple row : queryFactory
+                .select(team.id, team.name, member.count(), member.age.sum(), member.age.min(), member.age.max())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.id, team.name)
+                .fetch()) {
+            Long teamId = row.get(team.id);
+            // JPQL sum(int) 은 Long 이다.
+            Number sum = (Number) row.toArray()[3];
+            result.put(teamId, new TeamAgeStats(teamId, row.get(team.name), row.get(member.count()),
+                    sum == null ? 0 : sum.longValue(), row.get(member.age.min()), row.get(member.age.max())));
+        }
+        return result;
+    }
+
+    @Override
+    public String consumerName() {
+        return "team-age-summary";
+    }
+
+    @Override
+    public boolean perInstance() {
+        return true;
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        // 단건 변경과 BULK_AGE_ADD 는 TeamAgeSummaryWriter 가 이미 반영했다.
+        if (event.isBulk() && event.getChangeType() != ChangeType.BULK_AGE_ADD
+                && Member.class.getSimpleName().equals(event.getEntityType())) {
+            dirty = true;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package study.querydsl.summary;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.HibernateEvents;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Member 쓰기를 team_age_summary 에 같은 트랜잭션으로 반영하고, 커밋 후 TeamAgeSummaryView 에 바뀐 팀을 알린다.
+ *
+ * - 추가: count + 1, sum + age, min/max 는 least/greatest
+ * - 삭제: count - 1, sum - age, 지운 값이 min/max 였을 때만 그 팀의 min/max 를 다시 구한다.
+ * - 수정: 나이나 팀이 바뀌었으면 이전 값 삭제 + 새 값 추가
+ * POST_* 이벤트는 SQL 실행 뒤에 오므로 다시 구하는 min/max 에는 이번 변경이 이미 들어 있다.
+ * 벌크 DML 은 이벤트가 없으므로 TeamAgeSummaryView 가 change_log 를 보고 다시 집계한다.
+ * 단, 주기적으로 도는 나이 증감(MemberAgeUpdateService)은 addAgeSums 로 팀별 증감만 반영한다.
+ * 요약 테이블을 고친 트랜잭션이 끝날 때까지 view 의 incrementalLock 을 잡아 다시 집계와 겹치지 않게 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamAgeSummaryWriter implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String ADD_SQL =
+            "merge into team_age_summary s " +
+            "using (select cast(? as bigint) team_id, cast(? as integer) age) v on (s.team_id = v.team_id) " +
+            "when matched then update set member_count = s.member_count + 1, age_sum = s.age_sum + v.age, " +
+            "age_min = least(s.age_min, v.age), age_max = greatest(s.age_max, v.age) " +
+            "when not matched then insert (team_id, member_count, age_sum, age_min, age_max) " +
+            "values (v.team_id, 1, v.age, v.age, v.age)";
+    private static final String REMOVE_SQL =
+            "update team_age_summary set member_count = member_count - 1, age_sum = age_sum - ?, " +
+            "age_min = case when age_min = ? then (select min(age) from member where team_id = ?) else age_min end, " +
+            "age_max = case when age_max = ? then (select max(age) from member where team_id = ?) else age_max end " +
+            "where team_id = ?";
+    private static final String ADD_AGE_SUM_SQL =
+            "update team_age_summary set age_sum = age_sum + ?, " +
+            "age_min = (select min(age) from member where team_id = ?), " +
+            "age_max = (select max(age) from member where team_id = ?) " +
+            "where team_id = ?";
+    private static final String DELETE_EMPTY_SQL =
+            "delete from team_age_summary where team_id = ? and member_count = 0";
+
+    private final EntityManagerFactory emf;
+    private final EntityManager em;
+    private final TeamAgeSummaryView view;
+
+    @PostConstruct
+    public void register() {
+        HibernateEvents.register(emf, this, EventType.POST_INSERT, EventType.POST_UPDATE, EventType.POST_DELETE);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            add(event.getSession(), HibernateEvents.memberTeamId(event.getState(), event.getPersister(), event.getSession()),
+                    age(event.getState(), event.getPersister()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Long teamId = HibernateEvents.memberTeamId(event.getState(), event.getPersister(), event.getSession());
+            int age = age(event.getState(), event.getPersister());
+            if (event.getOldState() == null) {
+                // 변경 전 값을 모르면(분리 상태에서 update) 전부 다시 집계한다.
+                afterCommit(null);
+                return;
+            }
+            Long oldTeamId = HibernateEvents.memberTeamId(event.getOldState(), event.getPersister(), event.getSession());
+            int oldAge = age(event.getOldState(), event.getPersister());
+            if (!Objects.equals(teamId, oldTeamId) || age != oldAge) {
+                remove(event.getSession(), oldTeamId, oldAge);
+                add(event.getSession(), teamId, age);
+            }
+        } else if (event.getEntity() instanceof Team) {
+            // 팀 이름만 다시 읽으면 된다.
+            afterCommit((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            remove(event.getSession(), HibernateEvents.memberTeamId(event.getDeletedState(), event.getPersister(), event.getSession()),
+                    age(event.getDeletedState(), event.getPersister()));
+        }
+    }
+
+    /**
+     * 벌크 나이 증감을 팀별로 반영한다. (팀 id -> 증감값 * 바뀐 회원 수)
+     * 회원 수는 그대로이고, min/max 는 update 된 member 에서 다시 구한다. 회원 update 뒤 같은 트랜잭션에서 불러야 한다.
+     */
+    public void addAgeSums(Map<Long, Long> sumDeltas) {
+        if (sumDeltas.isEmpty()) {
+            return;
+        }
+        write(em.unwrap(Session.class), connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(ADD_AGE_SUM_SQL)) {
+                for (Map.Entry<Long, Long> entry : sumDeltas.entrySet()) {
+                    ps.setLong(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                    ps.setLong(3, entry.getKey());
+                    ps.setLong(4, entry.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+        sumDeltas.keySet().forEach(this::afterCommit);
+    }
+
+    private void add(EventSource session, Long teamId, int age) {
+        if (teamId == null) {
+            return;
+        }
+        write(session, connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(ADD_SQL)) {
+                ps.setLong(1, teamId);
+                ps.setInt(2, age);
+                ps.executeUpdate();
+            }
+        });
+        afterCommit(teamId);
+    }
+
+    private void remove(EventSource session, Long teamId, int age) {
+        if (teamId == null) {
+            return;
+        }
+        write(session, connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(REMOVE_SQL)) {
+                ps.setInt(1, age);
+                ps.setInt(2, age);
+                ps.setLong(3, teamId);
+                ps.setInt(4, age);
+                ps.setLong(5, teamId);
+                ps.setLong(6, teamId);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(DELETE_EMPTY_SQL)) {
+                ps.setLong(1, teamId);
+                ps.executeUpdate();
+            }
+        });
+        afterCommit(teamId);
+    }
+
+    /**
+     * 트랜잭션 안이면 lock 은 트랜잭션이 끝날 때 풀리고, 밖이면 문장 하나만 잠근다.
+     */
+    private void write(Session session, Work work) {
+        if (pending() != null) {
+            session.doWork(work);
+            return;
+        }
+        Lock lock = view.incrementalLock();
+        lock.lock();
+        try {
+            session.doWork(work);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 트랜잭션마다 바뀐 팀 id 를 모았다가 커밋 후 한 번에 다시 읽게 한다. (롤백되면 버린다)
+     * teamId 가 null 이면 어느 팀이 바뀌었는지 모르는 것이므로 커밋 후 전부 다시 집계한다.
+     */
+    private void afterCommit(Long teamId) {
+        Pending pending = pending();
+        if (pending == null) {
+            new Pending().add(teamId).apply(view);
+            return;
+        }
+        pending.add(teamId);
+    }
+
+    /**
+     * 현재 트랜잭션의 Pending (트랜잭션 밖이면 null). 처음 만들 때 incrementalLock 을 잡는다.
+     */
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Lock lock = view.incrementalLock();
+            lock.lock();
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.apply(view);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TeamAgeSummaryWriter.this);
+                    lock.unlock();
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private static int age(Object[] state, EntityPersister persister) {
+        Object age = state[persister.getEntityMetamodel().getPropertyIndex("age")];
+        return age == null ? 0 : (Integer) age;
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static class Pending {
+        private final Set<Long> teamIds = new HashSet<>();
+        private boolean rebuild;
+
+        private Pending add(Long teamId) {
+            if (teamId == null) {
+                rebuild = true;
+            } else {
+                teamIds.add(teamId);
+            }
+            return this;
+        }
+
+        private void apply(TeamAgeSummaryView view) {
+            if (rebuild) {
+                view.markDirty();
+            } else {
+                view.reload(teamIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.timeout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.Callable;
+
+/**
+ * 검색을 비동기 요청으로 실행하고, 요청이 시간 초과되면
+ * 실행 중인 쿼리를 Session.cancelQuery(Statement.cancel) 로 취소해 커넥션을 바로 돌려받는다.
+ *
+ * 클라이언트 연결 끊김은 서블릿 컨테이너가 소켓 I/O 를 할 때에야 알 수 있으므로
+ * 쿼리가 도는 동안에는 감지되지 않는다. 그런 요청은 결국 request-timeout 에서 취소된다.
+ *
+ * 작업 스레드에 EntityManager 를 묶어 두고 실행하므로 검색 안의 쿼리는 모두 그 세션을 쓴다.
+ * (트랜잭션은 열지 않는다. 트랜잭션 안에서는 검색 캐시를 거치지 않기 때문)
+ */
+@Component
+public class CancellableSearch {
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+    private final long requestTimeoutMillis;
+
+    public CancellableSearch(EntityManagerFactory emf,
+                             MeterRegistry meterRegistry,
+                             @Value("${search.request-timeout-ms:10000}") long requestTimeoutMillis) {
+        this.emf = emf;
+        this.meterRegistry = meterRegistry;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    public <T> WebAsyncTask<T> submit(Callable<T> search) {
+        SearchCancellation cancellation = new SearchCancellation(emf, meterRegistry);
+        WebAsyncTask<T> task = new WebAsyncTask<>(requestTimeoutMillis, () -> cancellation.run(search));
+        task.onTimeout(() -> {
+            cancellation.cancel("timeout");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "search timed out");
+        });
+        // 비동기 요청에 I/O 오류가 났으면 응답을 쓸 곳이 없으므로 결과 없이 끝낸다.
+        task.onError(() -> {
+            cancellation.cancel("error");
+            return null;
+        });
+        return task;
+    }
+}
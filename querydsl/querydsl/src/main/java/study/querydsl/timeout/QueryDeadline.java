@@ -0,0 +1,61 @@
+package study.querydsl.timeout;
+
+import javax.persistence.QueryTimeoutException;
+
+/**
+ * 현재 스레드에서 실행 중인 저장소 메서드의 마감 시각.
+ * 메서드 안에서 만드는 쿼리는 남은 시간만큼만 실행된다. (TimeLimitedJPAQueryFactory)
+ */
+public final class QueryDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private QueryDeadline() {
+    }
+
+    /**
+     * 지금부터 timeoutMillis 뒤를 마감으로 건다. 이미 마감이 걸려 있으면(중첩 호출) 더 이른 쪽을 따른다.
+     * 반환한 Scope 를 닫으면 이전 마감으로 돌아간다.
+     */
+    public static Scope start(long timeoutMillis) {
+        Long outer = DEADLINE.get();
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        if (outer == null || deadline - outer < 0) {
+            DEADLINE.set(deadline);
+        }
+        return new Scope(outer);
+    }
+
+    /**
+     * 남은 시간(ms). 마감이 없으면 -1, 이미 지났으면 QueryTimeoutException
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return -1;
+        }
+        long remaining = (deadline - System.nanoTime()) / 1_000_000;
+        if (remaining <= 0) {
+            throw new QueryTimeoutException("query deadline exceeded");
+        }
+        return remaining;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Long outer;
+
+        private Scope(Long outer) {
+            this.outer = outer;
+        }
+
+        @Override
+        public void close() {
+            if (outer == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(outer);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.timeout;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * 모든 Spring Data 저장소 프록시에 QueryTimeoutInterceptor 를 붙인다.
+ * 프록시는 팩토리 빈 초기화 때 만들어지므로 그 전에 커스터마이저를 등록한다.
+ */
+@Configuration
+public class QueryTimeoutConfig {
+
+    @Bean
+    public static BeanPostProcessor queryTimeoutRepositoryPostProcessor(ObjectProvider<QueryTimeouts> timeouts) {
+        QueryTimeoutInterceptor interceptor = new QueryTimeoutInterceptor(timeouts);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                                    proxyFactory.addAdvice(interceptor)));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.timeout;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * 저장소 메서드 호출 동안 QueryDeadline 을 건다. (QueryTimeoutConfig 가 저장소 프록시에 붙인다)
+ */
+public class QueryTimeoutInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<QueryTimeouts> timeouts;
+
+    public QueryTimeoutInterceptor(ObjectProvider<QueryTimeouts> timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        long timeout = timeouts.getObject().timeoutMillis(invocation.getMethod().getName());
+        if (timeout <= 0) {
+            return invocation.proceed();
+        }
+        try (QueryDeadline.Scope ignored = QueryDeadline.start(timeout)) {
+            return invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.querydsl.timeout;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 저장소 메서드별 쿼리 제한 시간.
+ * query-timeout.methods.{메서드명} 이 없으면 query-timeout.default-ms, 0 이면 제한하지 않는다.
+ */
+@Component
+public class QueryTimeouts {
+
+    private final Environment environment;
+    private final Map<String, Long> timeouts = new ConcurrentHashMap<>();
+
+    public QueryTimeouts(Environment environment) {
+        this.environment = environment;
+    }
+
+    public long timeoutMillis(String methodName) {
+        return timeouts.computeIfAbsent(methodName, name -> environment.getProperty(
+                "query-timeout.methods." + name, Long.class,
+                environment.getProperty("query-timeout.default-ms", Long.class, 5000L)));
+    }
+}
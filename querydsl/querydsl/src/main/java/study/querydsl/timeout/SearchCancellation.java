@@ -0,0 +1,70 @@
+package study.querydsl.timeout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.Callable;
+
+/**
+ * 검색 하나의 취소 핸들. run 을 실행하는 스레드에 EntityManager 를 묶어 두고,
+ * 다른 스레드에서 cancel 을 부르면 그 세션에서 실행 중인 쿼리를 취소한다.
+ */
+@Slf4j
+class SearchCancellation {
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Session session;
+    private volatile boolean cancelled;
+
+    SearchCancellation(EntityManagerFactory emf, MeterRegistry meterRegistry) {
+        this.emf = emf;
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> T run(Callable<T> search) throws Exception {
+        // OSIV 가 이미 묶어 둔 EntityManager 가 있으면 그대로 쓴다.
+        EntityManagerHolder bound = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        EntityManager em = bound != null ? bound.getEntityManager() : emf.createEntityManager();
+        if (bound == null) {
+            TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        }
+        try {
+            session = em.unwrap(Session.class);
+            if (cancelled) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "search cancelled");
+            }
+            return search.call();
+        } finally {
+            session = null;
+            if (bound == null) {
+                TransactionSynchronizationManager.unbindResource(emf);
+                em.close();
+            }
+        }
+    }
+
+    void cancel(String reason) {
+        cancelled = true;
+        Session current = session;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.cancelQuery();
+            meterRegistry.counter("member.search.cancelled", "reason", reason).increment();
+        } catch (HibernateException e) {
+            // 이미 끝난 세션
+            log.debug("search cancel ignored: {}", e.getMessage());
+        }
+    }
+}
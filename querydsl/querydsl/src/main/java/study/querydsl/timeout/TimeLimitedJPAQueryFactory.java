@@ -0,0 +1,46 @@
+package study.querydsl.timeout;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+/**
+ * 만드는 JPAQuery 와 named query 마다 QueryDeadline 의 남은 시간을 statement timeout 으로 건다.
+ * (select/selectFrom/from 모두 query() 를 거친다)
+ * JDBC timeout 은 초 단위이므로 남은 시간을 초로 올림한다.
+ */
+public class TimeLimitedJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+
+    public TimeLimitedJPAQueryFactory(EntityManager em) {
+        super(em);
+        this.em = em;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        JPAQuery<?> query = super.query();
+        long remaining = QueryDeadline.remainingMillis();
+        if (remaining > 0) {
+            query.setHint(QueryHints.TIMEOUT_HIBERNATE, timeoutSeconds(remaining));
+        }
+        return query;
+    }
+
+    public Query createNamedQuery(String name) {
+        Query query = em.createNamedQuery(name);
+        long remaining = QueryDeadline.remainingMillis();
+        if (remaining > 0) {
+            query.setHint(QueryHints.TIMEOUT_HIBERNATE, timeoutSeconds(remaining));
+        }
+        return query;
+    }
+
+    private static int timeoutSeconds(long remainingMillis) {
+        return (int) ((remainingMillis + 999) / 1000);
+    }
+}
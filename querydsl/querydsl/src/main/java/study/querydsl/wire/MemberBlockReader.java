@@ -0,0 +1,123 @@
+package study.querydsl.wire;
+
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static study.querydsl.wire.MemberWireFormat.*;
+
+/**
+ * MemberBlockWriter 가 쓴 스트림을 읽는다. (클라이언트, 테스트용)
+ */
+public class MemberBlockReader {
+
+    private final InputStream in;
+    private final List<String> dictionary = new ArrayList<>();
+    private long lastMemberId;
+
+    public MemberBlockReader(InputStream in) {
+        this.in = new BufferedInputStream(in);
+    }
+
+    public static List<MemberTeamDto> readAll(InputStream in) throws IOException {
+        List<MemberTeamDto> result = new ArrayList<>();
+        new MemberBlockReader(in).forEach(result::add);
+        return result;
+    }
+
+    /**
+     * 끝 표시까지 읽으면서 행마다 action 을 호출하고, 읽은 행 수를 반환한다.
+     */
+    public long forEach(Consumer<MemberTeamDto> action) throws IOException {
+        byte[] magic = readBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("not a member block stream");
+        }
+        long total = 0;
+        int rows;
+        while ((rows = (int) readVarLong()) > 0) {
+            readBlock(rows, action);
+            total += rows;
+        }
+        return total;
+    }
+
+    private void readBlock(int rows, Consumer<MemberTeamDto> action) throws IOException {
+        long[] memberIds = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            lastMemberId += unzigzag(readVarLong());
+            memberIds[i] = lastMemberId;
+        }
+        String[] usernames = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            long length = readVarLong();
+            usernames[i] = length == 0 ? null : readString((int) length - 1);
+        }
+        int[] ages = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            ages[i] = (int) unzigzag(readVarLong());
+        }
+        Long[] teamIds = new Long[rows];
+        for (int i = 0; i < rows; i++) {
+            long value = readVarLong();
+            teamIds[i] = value == 0 ? null : value - 1;
+        }
+        for (int i = 0; i < rows; i++) {
+            action.accept(new MemberTeamDto(memberIds[i], usernames[i], ages[i], teamIds[i], readTeamName()));
+        }
+    }
+
+    private String readTeamName() throws IOException {
+        long code = readVarLong();
+        if (code == NAME_NULL) {
+            return null;
+        }
+        if (code == NAME_NEW) {
+            String name = readString((int) readVarLong());
+            if (dictionary.size() < MAX_DICTIONARY) {
+                dictionary.add(name);
+            }
+            return name;
+        }
+        return dictionary.get((int) (code - NAME_DICTIONARY));
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private String readString(int length) throws IOException {
+        return new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,153 @@
+package study.querydsl.wire;
+
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static study.querydsl.wire.MemberWireFormat.*;
+
+/**
+ * MemberTeamDto 를 BLOCK_ROWS 행씩 모아 열 단위로 기록한다. (MemberWireFormat)
+ * 행을 모두 쓴 뒤 close 해야 끝 표시가 기록된다. out 은 닫지 않는다.
+ */
+public class MemberBlockWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private final MemberTeamDto[] block = new MemberTeamDto[BLOCK_ROWS];
+    private int rows;
+    private long lastMemberId;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private long written;
+    private boolean closed;
+
+    public MemberBlockWriter(OutputStream out) throws IOException {
+        this.out = out;
+        writeBytes(MAGIC);
+    }
+
+    public void write(MemberTeamDto dto) throws IOException {
+        block[rows++] = dto;
+        if (rows == BLOCK_ROWS) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * 지금까지 기록한 행 수
+     */
+    public long getWritten() {
+        return written + rows;
+    }
+
+    private void writeBlock() throws IOException {
+        writeVarLong(rows);
+        for (int i = 0; i < rows; i++) {
+            long memberId = block[i].getMemberId();
+            writeVarLong(zigzag(memberId - lastMemberId));
+            lastMemberId = memberId;
+        }
+        for (int i = 0; i < rows; i++) {
+            writeString(block[i].getUsername());
+        }
+        for (int i = 0; i < rows; i++) {
+            writeVarLong(zigzag(block[i].getAge()));
+        }
+        for (int i = 0; i < rows; i++) {
+            Long teamId = block[i].getTeamId();
+            writeVarLong(teamId == null ? 0 : teamId + 1);
+        }
+        for (int i = 0; i < rows; i++) {
+            writeTeamName(block[i].getTeamName());
+        }
+        written += rows;
+        rows = 0;
+        Arrays.fill(block, null);
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    private void writeTeamName(String name) throws IOException {
+        if (name == null) {
+            writeVarLong(NAME_NULL);
+            return;
+        }
+        Integer index = dictionary.get(name);
+        if (index != null) {
+            writeVarLong(NAME_DICTIONARY + index);
+            return;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(NAME_NEW);
+        writeVarLong(bytes.length);
+        writeBytes(bytes);
+        if (dictionary.size() < MAX_DICTIONARY) {
+            dictionary.put(name, dictionary.size());
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        if (buffer.length - position < 10) {
+            flushBuffer();
+        }
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (rows > 0) {
+            writeBlock();
+        }
+        writeVarLong(0);
+        flushBuffer();
+        out.flush();
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.wire;
+
+import com.mysema.commons.lang.CloseableIterator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@Service
+@RequiredArgsConstructor
+public class MemberStreamService {
+
+    private final MemberRepository memberRepository;
+
+    /**
+     * 검색 결과를 커서에서 읽는 대로 out 에 MemberWireFormat 으로 쓰고, 쓴 행 수를 반환한다.
+     * 도중에 실패하면 끝 표시를 쓰지 않으므로 받는 쪽에서 잘린 응답을 알 수 있다.
+     */
+    @Transactional(readOnly = true)
+    public long writeBlocks(MemberSearchCondition condition, OutputStream out) throws IOException {
+        try (CloseableIterator<MemberTeamDto> rows = memberRepository.searchIterator(condition)) {
+            MemberBlockWriter writer = new MemberBlockWriter(out);
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+            }
+            writer.close();
+            return writer.getWritten();
+        }
+    }
+}
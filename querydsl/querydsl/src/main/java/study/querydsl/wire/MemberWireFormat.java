@@ -0,0 +1,36 @@
+package study.querydsl.wire;
+
+import org.springframework.http.MediaType;
+
+/**
+ * 대량 MemberTeamDto 응답용 바이너리 형식 (Accept: application/x-member-block)
+ *
+ * <pre>
+ * stream   = magic("MBK1") block* varint(0)
+ * block    = varint(rows) memberId* username* age* teamId* teamName*   (열 단위, 최대 BLOCK_ROWS 행)
+ * memberId = zigzag(이전 행 memberId 와의 차이)
+ * username = varint(0) | varint(길이 + 1) utf8
+ * age      = zigzag(age)
+ * teamId   = varint(0) | varint(teamId + 1)
+ * teamName = varint(0)                           null
+ *          | varint(1) varint(길이) utf8         새 이름 (사전 크기가 MAX_DICTIONARY 미만이면 사전에 추가)
+ *          | varint(n + 2)                       사전의 n 번째 이름
+ * </pre>
+ * 숫자는 7비트씩 끊어 쓰는 varint 이고, 사전은 스트림 전체에서 유지된다.
+ */
+public final class MemberWireFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-member-block";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    static final byte[] MAGIC = {'M', 'B', 'K', '1'};
+    static final int BLOCK_ROWS = 1024;
+    static final int MAX_DICTIONARY = 4096;
+
+    static final int NAME_NULL = 0;
+    static final int NAME_NEW = 1;
+    static final int NAME_DICTIONARY = 2;
+
+    private MemberWireFormat() {
+    }
+}
@@ -0,0 +1,54 @@
+-- 초기 스키마 (기존 ddl-auto: create 로 만들던 DB 도 그대로 올라가도록 if not exists)
+create sequence if not exists hibernate_sequence start with 1 increment by 1;
+
+create table if not exists hello (
+    id bigint not null,
+    primary key (id)
+);
+
+create table if not exists team (
+    team_id bigint not null,
+    name varchar(255),
+    primary key (team_id)
+);
+
+create table if not exists member (
+    member_id bigint not null,
+    age integer not null,
+    username varchar(255),
+    team_id bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team
+);
+
+create table if not exists member_archive (
+    member_id bigint not null,
+    age integer not null,
+    archived_at timestamp,
+    team_id bigint,
+    username varchar(255),
+    primary key (member_id)
+);
+
+create table if not exists change_log (
+    change_log_id bigint generated by default as identity,
+    change_type varchar(255),
+    created_at timestamp,
+    entity_id bigint,
+    entity_type varchar(255),
+    from_id bigint,
+    to_id bigint,
+    primary key (change_log_id)
+);
+
+create table if not exists change_log_offset (
+    consumer varchar(255) not null,
+    last_offset bigint not null,
+    primary key (consumer)
+);
+
+-- MemberSort 가 허용하는 정렬에 맞춘 인덱스
+create index if not exists idx_member_id_desc on member (member_id desc);
+create index if not exists idx_member_age on member (age, member_id);
+create index if not exists idx_member_age_desc on member (age desc, member_id desc);
+create index if not exists idx_member_username on member (username, member_id);
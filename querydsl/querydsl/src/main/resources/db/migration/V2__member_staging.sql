@@ -0,0 +1,9 @@
+-- 회원 일괄 upsert 용 스테이징 테이블 (batch_id 별로 채우고 MERGE 후 지운다)
+create table if not exists member_staging (
+    batch_id varchar(36) not null,
+    member_id bigint not null,
+    age integer not null,
+    username varchar(255),
+    team_id bigint,
+    primary key (batch_id, member_id)
+);
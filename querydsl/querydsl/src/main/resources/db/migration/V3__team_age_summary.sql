@@ -0,0 +1,15 @@
+-- 팀별 나이 집계 (TeamAgeSummaryWriter 가 회원 변경과 같은 트랜잭션에서 고친다)
+create table if not exists team_age_summary (
+    team_id bigint not null,
+    member_count bigint not null,
+    age_sum bigint not null,
+    age_min integer,
+    age_max integer,
+    primary key (team_id)
+);
+
+insert into team_age_summary (team_id, member_count, age_sum, age_min, age_max)
+select team_id, count(*), sum(age), min(age), max(age)
+from member
+where team_id is not null and team_id not in (select team_id from team_age_summary)
+group by team_id;
@@ -0,0 +1,3 @@
+-- 회원명 = 팀명 매칭(searchByUsernameMatchingTeamName)에서 회원마다 팀을 인덱스로 찾는다.
+-- (회원 쪽은 idx_member_username)
+create index if not exists idx_team_name on team (name, team_id);
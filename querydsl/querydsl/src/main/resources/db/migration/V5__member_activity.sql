@@ -0,0 +1,20 @@
+-- 회원 활동 이벤트 (추가만 한다, MemberActivityWriter 가 JDBC 배치로 쓴다)
+-- member 와 외래키를 걸지 않는다. (적재가 member 행 잠금/검사와 엮이지 않도록 id 만 보관)
+create table if not exists member_activity (
+    member_id bigint not null,
+    activity_type varchar(50) not null,
+    occurred_at timestamp not null
+);
+
+create index if not exists idx_member_activity_member on member_activity (member_id, occurred_at);
+
+-- 시간 단위 회원별/유형별 집계 (이벤트를 쓰는 트랜잭션에서 같이 더한다)
+create table if not exists member_activity_hourly (
+    bucket_start timestamp not null,
+    member_id bigint not null,
+    activity_type varchar(50) not null,
+    event_count bigint not null,
+    primary key (bucket_start, member_id, activity_type)
+);
+
+create index if not exists idx_member_activity_hourly_member on member_activity_hourly (member_id, bucket_start);
@@ -0,0 +1,10 @@
+-- 소비자별로 offset 아래에서 건너뛴 change_log id 구간 (먼저 id 를 받고 늦게 커밋된 트랜잭션)
+-- 한 트랜잭션이 id 를 수천 개 받아 두고 늦게 커밋해도 from~to 한 줄로 기록된다.
+create table if not exists change_log_gap_range (
+    consumer varchar(255) not null,
+    from_id bigint not null,
+    to_id bigint not null,
+    detected_at timestamp not null,
+    primary key (consumer, from_id),
+    constraint fk_change_log_gap_range_offset foreign key (consumer) references change_log_offset
+);
@@ -0,0 +1,5 @@
+-- 상위 시스템이 정한 회원 키는 member_id(hibernate_sequence) 와 따로 두고 이 값으로 MERGE 한다.
+alter table member add column if not exists external_id bigint;
+create unique index if not exists ux_member_external_id on member (external_id);
+
+alter table member_staging alter column member_id rename to external_id;
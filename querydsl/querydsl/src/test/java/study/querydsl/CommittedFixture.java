@@ -0,0 +1,47 @@
+package study.querydsl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 데이터를 커밋하는 테스트의 준비 데이터 범위.
+ * 기본 스프링 컨텍스트(와 그 컨텍스트의 DB)는 여러 테스트 클래스가 같이 쓰므로,
+ * 테이블 전체가 아니라 이 테스트가 만든 id 구간만 세고 지운다.
+ * member / team 은 hibernate_sequence 를 같이 쓰므로 처음 만든 id 하나로 두 테이블의 구간이 정해진다.
+ */
+public class CommittedFixture {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long changeLogStart;
+    private Long firstId;
+
+    /**
+     * 준비 데이터를 만들기 전에 생성한다. (그 뒤에 쌓인 change_log 를 지운다)
+     */
+    public CommittedFixture(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeLogStart = jdbcTemplate.queryForObject("select coalesce(max(change_log_id), 0) from change_log", Long.class);
+    }
+
+    /**
+     * 이 테스트가 처음 만든 member / team id
+     */
+    public void startsAt(Long firstId) {
+        this.firstId = firstId;
+    }
+
+    public Long getFirstId() {
+        return firstId;
+    }
+
+    public boolean contains(Long id) {
+        return id != null && firstId != null && id >= firstId;
+    }
+
+    public void cleanUp() {
+        if (firstId != null) {
+            jdbcTemplate.update("delete from member where member_id >= ?", firstId);
+            jdbcTemplate.update("delete from team where team_id >= ?", firstId);
+        }
+        jdbcTemplate.update("delete from change_log where change_log_id > ?", changeLogStart);
+    }
+}
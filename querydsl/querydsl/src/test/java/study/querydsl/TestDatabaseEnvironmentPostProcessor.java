@@ -0,0 +1,26 @@
+package study.querydsl;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 테스트 컨텍스트마다 따로 쓰는 인메모리 DB 이름 (test.database-name, src/test/resources/application.yml)
+ *
+ * 속성이 다른 @SpringBootTest 는 컨텍스트가 따로 떠서 캐시에 남아 있고 각자 스케줄러가 돈다.
+ * 같은 DB 를 쓰면 새 컨텍스트가 뜰 때 다른 컨텍스트가 쓰는 스키마를 지우고,
+ * 다른 컨텍스트의 ChangeLogPublisher 가 같은 소비자 offset 을 먼저 가져가 결과가 테스트 순서에 따라 달라진다.
+ * ${random.uuid} 는 참조할 때마다 값이 바뀌므로(JPA 와 R2DBC 가 같은 URL 을 읽는다) 컨텍스트마다 한 번만 정한다.
+ */
+public class TestDatabaseEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        environment.getPropertySources().addLast(new MapPropertySource("testDatabase",
+                Map.of("test.database-name", "querydsl-" + UUID.randomUUID())));
+    }
+}
@@ -0,0 +1,169 @@
+package study.querydsl.activity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.dto.ActivityCountDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.activity.SMemberActivityHourly.memberActivityHourly;
+
+@SpringBootTest(properties = "member-activity.flush-interval-ms=3600000")
+class MemberActivityWriterTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    MemberActivityWriter writer;
+    @Autowired
+    MemberActivityRollups rollups;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    TaskScheduler taskScheduler;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from member_activity");
+        jdbcTemplate.update("delete from member_activity_hourly");
+        jdbcTemplate.update("delete from member where member_id >= 900000");
+        jdbcTemplate.update("delete from team where team_id >= 900000");
+    }
+
+    @Test
+    public void batchesAndRollsUpEventsFromManyThreads() throws Exception {
+        jdbcTemplate.update("insert into team (team_id, name) values (900001, 'teamA'), (900002, 'teamB')");
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id) values " +
+                "(900001, 'member1', 10, 900001), (900002, 'member2', 20, 900001), (900003, 'member3', 30, 900002)");
+
+        int threads = 8;
+        int perThread = 6_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // 900001 : 900002 : 900003 = 3 : 2 : 1, 두 시간 구간에 나눠서
+                    int slot = i % 6;
+                    long memberId = slot < 3 ? 900001 : slot < 5 ? 900002 : 900003;
+                    writer.record(memberId, i % 2 == 0 ? "view" : "click", NOON.plusMinutes(i % 120));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(writer.flush()).isEqualTo(threads * perThread);
+        assertThat(writer.bufferedCount()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member_activity", Long.class)).isEqualTo(48_000);
+        assertThat(jdbcTemplate.queryForObject("select sum(event_count) from member_activity_hourly", Long.class)).isEqualTo(48_000);
+
+        assertThat(rollups.countByMember(NOON, NOON.plusHours(2), null, 10))
+                .extracting(ActivityCountDto::getId, ActivityCountDto::getCount)
+                .containsExactly(tuple(900001L, 24_000L), tuple(900002L, 16_000L), tuple(900003L, 8_000L));
+        assertThat(rollups.countByTeam(NOON, NOON.plusHours(2), null, 10))
+                .extracting(ActivityCountDto::getId, ActivityCountDto::getCount)
+                .containsExactly(tuple(900001L, 40_000L), tuple(900002L, 8_000L));
+        // 두 번째 시간 구간의 view 만
+        assertThat(rollups.countByMember(NOON.plusHours(1), NOON.plusHours(2), "view", 1))
+                .extracting(ActivityCountDto::getId, ActivityCountDto::getCount)
+                .containsExactly(tuple(900001L, 8_000L));
+
+        // member3 은 click 만 있었다. 같은 구간에 더 쓰면 집계에 더해진다.
+        writer.record(900003, "view", NOON);
+        writer.record(900003, "view", NOON.plusMinutes(59));
+        writer.flush();
+        assertThat(rollups.fetch(rollups.query()
+                        .select(memberActivityHourly.eventCount)
+                        .from(memberActivityHourly)
+                        .where(memberActivityHourly.memberId.eq(900003L),
+                                memberActivityHourly.activityType.eq("view"),
+                                memberActivityHourly.bucketStart.eq(NOON)),
+                (rs, rowNum) -> rs.getLong(1)))
+                .containsExactly(2L);
+    }
+
+    @Test
+    public void dropsWhenBufferFull() {
+        ActivityRingBuffer ring = new ActivityRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i, "view", 0)).isTrue();
+        }
+        assertThat(ring.offer(4, "view", 0)).isFalse();
+
+        List<Long> drained = new ArrayList<>();
+        assertThat(ring.drain((memberId, type, at) -> drained.add(memberId), 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(0L, 1L, 2L);
+
+        // 비운 자리는 다음 바퀴에 다시 쓴다.
+        for (int i = 5; i < 8; i++) {
+            assertThat(ring.offer(i, "view", 0)).isTrue();
+        }
+        assertThat(ring.size()).isEqualTo(4);
+        assertThat(ring.drain((memberId, type, at) -> drained.add(memberId), 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(0L, 1L, 2L, 3L, 5L, 6L, 7L);
+    }
+
+    @Test
+    public void flushesWhileSharedSchedulerIsBusy() throws Exception {
+        MemberActivityWriter fast = new MemberActivityWriter(jdbcTemplate, transactionManager, meterRegistry, 1024, 100, 20);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            fast.start();
+            // 야간 배치처럼 스프링 스케줄러 스레드를 붙잡아 둔다.
+            taskScheduler.schedule(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, new Date());
+
+            fast.record(900_001L, "view", NOON);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (countActivities(900_001L) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(countActivities(900_001L)).isEqualTo(1);
+        } finally {
+            release.countDown();
+            fast.close();
+        }
+    }
+
+    @Test
+    public void rejectedRecordsCounted() {
+        double before = meterRegistry.counter("member.activity.dropped").count();
+        MemberActivityWriter small = new MemberActivityWriter(jdbcTemplate, null, meterRegistry, 2, 2, 100);
+
+        assertThat(small.record(1, "view")).isTrue();
+        assertThat(small.record(1, "view")).isTrue();
+        assertThat(small.record(1, "view")).isFalse();
+        assertThat(meterRegistry.counter("member.activity.dropped").count()).isEqualTo(before + 1);
+    }
+
+    private long countActivities(long memberId) {
+        return jdbcTemplate.queryForObject("select count(*) from member_activity where member_id = ?", Long.class, memberId);
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberField;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.MemberArchive;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.UnsupportedConditionException;
+
+import javax.persistence.EntityManager;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "archive.chunk-size=3")
+@Transactional
+class MemberArchiveJobTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberArchiveJob archiveJob;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void archiveInChunks() {
+        // 나이 > 12 : 7명 -> 3, 3, 1 세 번에 나눠 옮긴다.
+        long archived = archiveJob.archiveAgeGreaterThan(12);
+
+        assertThat(archived).isEqualTo(7);
+        assertThat(memberRepository.count()).isEqualTo(13);
+        List<MemberArchive> archives = em.createQuery("select a from MemberArchive a order by a.id", MemberArchive.class)
+                .getResultList();
+        assertThat(archives).extracting("username")
+                .containsExactly("member13", "member14", "member15", "member16", "member17", "member18", "member19");
+        assertThat(archives).allSatisfy(a -> {
+            assertThat(a.getTeamId()).isNotNull();
+            assertThat(a.getArchivedAt()).isNotNull();
+        });
+    }
+
+    @Test
+    public void searchIncludeArchived() {
+        archiveJob.archiveAgeGreaterThan(12);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(10);
+
+        // 기본은 member 테이블만 조회
+        assertThat(memberRepository.search(condition)).extracting("username")
+                .containsExactly("member11");
+
+        condition.setIncludeArchived(true);
+        List<MemberTeamDto> result = memberRepository.search(condition);
+        assertThat(result).extracting("username")
+                .containsExactly("member11", "member13", "member15", "member17", "member19");
+        assertThat(result).extracting("teamName").containsOnly("teamB");
+    }
+
+    @Test
+    public void searchFieldsIncludeArchived() {
+        archiveJob.archiveAgeGreaterThan(12);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(10);
+        condition.setIncludeArchived(true);
+
+        List<Map<String, Object>> result = memberRepository.searchFields(condition, EnumSet.of(MemberField.USERNAME, MemberField.TEAM_NAME));
+        assertThat(result).extracting(row -> row.get("username"))
+                .containsExactly("member11", "member13", "member15", "member17", "member19");
+        assertThat(result).extracting(row -> row.get("teamName")).containsOnly("teamB");
+
+        // team 조인 없이 외래키만 고른 경우
+        List<Map<String, Object>> ids = memberRepository.searchFields(condition, EnumSet.of(MemberField.AGE, MemberField.TEAM_ID));
+        assertThat(ids).extracting(row -> row.get("age")).containsExactly(11, 13, 15, 17, 19);
+        assertThat(ids).extracting(row -> row.get("teamId")).doesNotContainNull();
+    }
+
+    @Test
+    public void otherSearchesRejectIncludeArchived() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setIncludeArchived(true);
+        PageRequest pageable = PageRequest.of(0, 10);
+
+        assertThatThrownBy(() -> memberRepository.searchPageSimple(condition, pageable))
+                .isInstanceOf(UnsupportedConditionException.class)
+                .hasMessageContaining("searchPageSimple");
+        assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, pageable))
+                .isInstanceOf(UnsupportedConditionException.class);
+        assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, pageable, () -> 0L))
+                .isInstanceOf(UnsupportedConditionException.class);
+        assertThatThrownBy(() -> memberRepository.searchByTeamIds(condition, Map.of(1L, "teamA")))
+                .isInstanceOf(UnsupportedConditionException.class);
+        assertThatThrownBy(() -> memberRepository.countByAgeBucket(condition, 10))
+                .isInstanceOf(UnsupportedConditionException.class);
+        assertThatThrownBy(() -> memberRepository.searchByUsernameMatchingTeamName(condition, false))
+                .isInstanceOf(UnsupportedConditionException.class);
+    }
+}
@@ -0,0 +1,238 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.CommittedFixture;
+import study.querydsl.changelog.ChangeLogPublisher;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션 안에서는 캐시를 쓰지 않으므로 데이터를 커밋한 상태로 테스트한다.
+ * heap 을 2개, disk 를 3개로 줄여 disk 계층과 disk 에서 밀려나는 경우까지 거치게 한다.
+ */
+@SpringBootTest(properties = {
+        "search-cache.max-entries=2",
+        "search-cache.disk.dir=${java.io.tmpdir}/member-search-cache-test",
+        "search-cache.disk.max-entries=3",
+        "changelog.poll-interval-ms=3600000"})
+class MemberSearchCacheTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    CachedMemberSearch cachedMemberSearch;
+    @Autowired
+    MemberSearchCache cache;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    ChangeLogPublisher changeLogPublisher;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    TransactionTemplate tx;
+    CommittedFixture fixture;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        fixture = new CommittedFixture(jdbcTemplate);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+            }
+            fixture.startsAt(teamA.getId());
+            teamBId = teamB.getId();
+        });
+        // 준비 데이터의 변경 이력은 넘긴다.
+        changeLogPublisher.publish(cache);
+        cache.invalidateAll();
+    }
+
+    @AfterEach
+    public void after() {
+        changeLogPublisher.publish(cache);
+        fixture.cleanUp();
+        cache.invalidateAll();
+    }
+
+    @Test
+    public void hitAfterFirstSearch() {
+        MemberSearchCondition condition = teamCondition("teamA");
+
+        double misses = requests("miss");
+        assertThat(cachedMemberSearch.search(condition)).hasSize(5);
+        assertThat(cachedMemberSearch.search(condition)).hasSize(5);
+
+        assertThat(requests("miss") - misses).isEqualTo(1);
+        assertThat(cache.contains(SearchCacheKey.of(condition))).isTrue();
+    }
+
+    @Test
+    public void updateInvalidatesOnlyMatchingEntries() {
+        MemberSearchCondition teamA = teamCondition("teamA");
+        MemberSearchCondition teamB = teamCondition("teamB");
+        cachedMemberSearch.search(teamA);
+        cachedMemberSearch.search(teamB);
+
+        // teamB 회원(member1)의 나이만 바꾼다.
+        tx.executeWithoutResult(status -> memberRepository.findByUsername("member1").get(0).setAge(11));
+
+        assertThat(cache.contains(SearchCacheKey.of(teamA))).isTrue();
+        assertThat(cache.contains(SearchCacheKey.of(teamB))).isFalse();
+        assertThat(cachedMemberSearch.search(teamB)).extracting("age").contains(11);
+    }
+
+    @Test
+    public void teamChangeInvalidatesOldAndNewTeam() {
+        MemberSearchCondition teamA = teamCondition("teamA");
+        MemberSearchCondition teamB = teamCondition("teamB");
+        MemberSearchCondition old = new MemberSearchCondition();
+        old.setAgeGoe(80);
+        cachedMemberSearch.search(teamA);
+        cachedMemberSearch.search(teamB);
+        cachedMemberSearch.search(old);
+
+        // member0 (teamA, 0살) -> teamB
+        tx.executeWithoutResult(status -> memberRepository.findByUsername("member0").get(0)
+                .changeTeam(em.find(Team.class, teamBId)));
+
+        assertThat(cache.contains(SearchCacheKey.of(teamA))).isFalse();
+        assertThat(cache.contains(SearchCacheKey.of(teamB))).isFalse();
+        // 80살 이상 조건은 member0 과 상관없다.
+        assertThat(cache.contains(SearchCacheKey.of(old))).isTrue();
+        assertThat(cachedMemberSearch.search(teamB)).hasSize(6);
+    }
+
+    @Test
+    public void bulkUpdateInvalidatesAgeConditions() {
+        MemberSearchCondition young = new MemberSearchCondition();
+        young.setAgeLoe(20);
+        MemberSearchCondition byName = new MemberSearchCondition();
+        byName.setUsername("nobody");
+        cachedMemberSearch.search(young);
+        cachedMemberSearch.search(byName);
+
+        tx.executeWithoutResult(status -> memberRepository.bulkAgeAdd(1));
+        changeLogPublisher.publish(cache);
+
+        assertThat(cache.contains(SearchCacheKey.of(young))).isFalse();
+        assertThat(cache.contains(SearchCacheKey.of(byName))).isTrue();
+    }
+
+    @Test
+    public void bulkUpdateInvalidatesAgeSortedPages() {
+        // /v3/members?sort=age,desc&size=3
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest byAgeDesc = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+        assertThat(cachedMemberSearch.searchPage(condition, byAgeDesc).getContent())
+                .extracting("username").doesNotContain("member0", "member1");
+
+        // 페이지 밖 회원의 나이만 올린다.
+        List<Long> outside = jdbcTemplate.queryForList(
+                "select member_id from member where member_id >= ? and username in ('member0', 'member1')",
+                Long.class, fixture.getFirstId());
+        tx.executeWithoutResult(status -> memberRepository.bulkAgeAddByIds(100, outside));
+        changeLogPublisher.publish(cache);
+
+        assertThat(cache.contains(SearchCacheKey.of(condition, byAgeDesc))).isFalse();
+        assertThat(cachedMemberSearch.searchPage(condition, byAgeDesc).getContent())
+                .extracting("username").contains("member0", "member1");
+    }
+
+    @Test
+    public void pageResultKeepsTotal() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cachedMemberSearch.searchPage(condition, PageRequest.of(1, 3));
+        double misses = requests("miss");
+
+        assertThat(cachedMemberSearch.searchPage(condition, PageRequest.of(1, 3)).getTotalElements()).isEqualTo(10);
+        assertThat(requests("miss")).isEqualTo(misses);
+    }
+
+    @Test
+    public void evictedEntriesMoveToDisk() {
+        for (int age = 0; age < 5; age++) {
+            cachedMemberSearch.search(ageCondition(age));
+        }
+        double misses = requests("miss");
+        double diskHits = requests("disk");
+
+        for (int age = 0; age < 5; age++) {
+            assertThat(cachedMemberSearch.search(ageCondition(age))).hasSize(10 - (age + 9) / 10);
+        }
+
+        assertThat(requests("miss")).isEqualTo(misses);
+        assertThat(requests("disk")).isGreaterThan(diskHits);
+    }
+
+    @Test
+    public void diskEvictionRemovesEntry() {
+        for (int age = 0; age < 10; age++) {
+            cachedMemberSearch.search(ageCondition(age));
+        }
+
+        // heap 2개 + disk 3개만 남고, disk 에서 밀려난 키는 목록에서도 빠진다.
+        assertThat(cache.size()).isEqualTo(5);
+        long contained = IntStream.range(0, 10)
+                .filter(age -> cache.contains(SearchCacheKey.of(ageCondition(age))))
+                .count();
+        assertThat(contained).isEqualTo(5);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void searchInTransactionBypassesCache() {
+        MemberSearchCondition condition = teamCondition("teamA");
+
+        tx.executeWithoutResult(status -> cachedMemberSearch.search(condition));
+
+        assertThat(cache.contains(SearchCacheKey.of(condition))).isFalse();
+    }
+
+    private MemberSearchCondition teamCondition(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+
+    private MemberSearchCondition ageCondition(int ageGoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(ageGoe);
+        return condition;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter("member.search.cache.requests", "result", result).count();
+    }
+}
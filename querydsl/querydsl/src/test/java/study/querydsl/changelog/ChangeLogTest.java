@@ -0,0 +1,266 @@
+package study.querydsl.changelog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.ChangeLog;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class ChangeLogTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    ChangeLogRepository changeLogRepository;
+    @Autowired
+    ChangeLogOffsetRepository offsetRepository;
+    @Autowired
+    ChangeLogPublisher publisher;
+    @Autowired
+    ObjectProvider<ChangeLogConsumer> consumers;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    public void entityWrite() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.flush();
+
+        member1.setAge(11);
+        em.flush();
+
+        List<ChangeLog> logs = changeLogRepository.findAll();
+        assertThat(logs).extracting("entityType").containsExactly("Team", "Member", "Member");
+        assertThat(logs).extracting("changeType")
+                .containsExactly(ChangeType.INSERT, ChangeType.INSERT, ChangeType.UPDATE);
+        assertThat(logs.get(2).getEntityId()).isEqualTo(member1.getId());
+    }
+
+    @Test
+    public void bulkRange() {
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        Member member3 = new Member("member3", 30);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+
+        long count = memberRepository.bulkDeleteByAgeGreaterThan(15);
+        assertThat(count).isEqualTo(2);
+
+        ChangeLog bulk = changeLogRepository.findAll().stream()
+                .filter(log -> log.getChangeType() == ChangeType.BULK_DELETE)
+                .findFirst().get();
+        assertThat(bulk.getFromId()).isEqualTo(member2.getId());
+        assertThat(bulk.getToId()).isEqualTo(member3.getId());
+    }
+
+    @Test
+    public void resumeFromOffset() {
+        RecordingConsumer consumer = new RecordingConsumer();
+        publisher.publish(consumer);
+        long start = publisher.currentOffset(consumer);
+
+        em.persist(new Member("member1", 10));
+        em.persist(new Member("member2", 20));
+        em.flush();
+
+        consumer.events.clear();
+        assertThat(publisher.publish(consumer)).isEqualTo(2);
+        assertThat(consumer.events).extracting("changeType").containsExactly(ChangeType.INSERT, ChangeType.INSERT);
+        assertThat(consumer.events.get(0).getOffset()).isLessThan(consumer.events.get(1).getOffset());
+
+        // 이미 받은 이벤트는 다시 오지 않는다.
+        assertThat(publisher.publish(consumer)).isEqualTo(0);
+
+        // offset 을 되돌리면 그 이후부터 다시 받는다.
+        publisher.seek(consumer, start);
+        consumer.events.clear();
+        assertThat(publisher.publish(consumer)).isEqualTo(2);
+    }
+
+    @Test
+    public void perInstanceOffsets() {
+        // 같은 DB 를 읽는 다른 인스턴스
+        ChangeLogPublisher other = new ChangeLogPublisher(changeLogRepository, offsetRepository, consumers,
+                transactionManager, 500, 300000, "other-instance");
+        RecordingConsumer shared = new RecordingConsumer("test-shared");
+        RecordingConsumer local = new RecordingConsumer("test-local", true);
+        assertThat(other.offsetKey(shared)).isEqualTo(publisher.offsetKey(shared));
+        assertThat(other.offsetKey(local)).isEqualTo("test-local@other-instance")
+                .isNotEqualTo(publisher.offsetKey(local));
+
+        while (publisher.publish(local) > 0 || other.publish(local) > 0) {
+            // 지금까지 쌓인 이벤트를 양쪽 모두 읽어 둔다.
+        }
+        em.persist(new Member("member1", 10));
+        em.flush();
+
+        // 인스턴스마다 offset 이 따로 있어서 양쪽 모두 받는다.
+        local.events.clear();
+        assertThat(publisher.publish(local)).isEqualTo(1);
+        assertThat(other.publish(local)).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void lateCommitBelowOffset() throws Exception {
+        RecordingConsumer consumer = new RecordingConsumer("test-late-commit");
+        List<Long> ids = new ArrayList<>();
+        try (Connection first = dataSource.getConnection();
+             Connection second = dataSource.getConnection()) {
+            long base = insertChangeLog(first);
+            ids.add(base);
+            publisher.seek(consumer, base);
+
+            // 작은 id 를 먼저 받은 트랜잭션이 큰 id 보다 늦게 커밋된다.
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            long early = insertChangeLog(first);
+            long late = insertChangeLog(second);
+            ids.add(early);
+            ids.add(late);
+            assertThat(early).isLessThan(late);
+            second.commit();
+
+            assertThat(publisher.publish(consumer)).isEqualTo(1);
+            assertThat(consumer.events).extracting("offset").containsExactly(late);
+
+            first.commit();
+            consumer.events.clear();
+            assertThat(publisher.publish(consumer)).isEqualTo(1);
+            assertThat(consumer.events).extracting("offset").containsExactly(early);
+
+            // gap 이 채워졌으므로 다시 오지 않는다.
+            assertThat(publisher.publish(consumer)).isEqualTo(0);
+        } finally {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                cleanUp(statement, consumer, ids);
+            }
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void lateCommitOfLongRun() throws Exception {
+        RecordingConsumer consumer = new RecordingConsumer("test-late-long-run");
+        List<Long> ids = new ArrayList<>();
+        List<Long> early = new ArrayList<>();
+        try (Connection first = dataSource.getConnection();
+             Connection second = dataSource.getConnection()) {
+            long base = insertChangeLog(first);
+            ids.add(base);
+            publisher.seek(consumer, base);
+
+            // 한 트랜잭션이 id 를 1000 개 넘게 받아 둔 채로, 뒤의 단건 트랜잭션이 먼저 커밋된다.
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            for (int i = 0; i < 1200; i++) {
+                early.add(insertChangeLog(first));
+            }
+            ids.addAll(early);
+            long late = insertChangeLog(second);
+            ids.add(late);
+            second.commit();
+
+            assertThat(publisher.publish(consumer)).isEqualTo(1);
+            assertThat(consumer.events).extracting("offset").containsExactly(late);
+
+            first.commit();
+            consumer.events.clear();
+            int delivered;
+            do {
+                delivered = publisher.publish(consumer);
+            } while (delivered > 0);
+
+            // 구간 하나로 남긴 gap 에서 늦게 커밋된 이벤트가 모두, 한 번씩 전달된다.
+            assertThat(consumer.events).extracting("offset").containsExactlyElementsOf(early);
+        } finally {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                cleanUp(statement, consumer, ids);
+            }
+        }
+    }
+
+    private static void cleanUp(Statement statement, ChangeLogConsumer consumer, List<Long> ids) throws Exception {
+        statement.executeUpdate("delete from change_log_gap_range where consumer = '" + consumer.consumerName() + "'");
+        statement.executeUpdate("delete from change_log_offset where consumer = '" + consumer.consumerName() + "'");
+        for (Long id : ids) {
+            statement.executeUpdate("delete from change_log where change_log_id = " + id);
+        }
+    }
+
+    private static long insertChangeLog(Connection connection) throws Exception {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into change_log (change_type, created_at, entity_id, entity_type) values ('INSERT', current_timestamp, 0, 'Test')",
+                Statement.RETURN_GENERATED_KEYS)) {
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    static class RecordingConsumer implements ChangeLogConsumer {
+        final List<ChangeEvent> events = new ArrayList<>();
+        private final String name;
+        private final boolean perInstance;
+
+        RecordingConsumer() {
+            this("test");
+        }
+
+        RecordingConsumer(String name) {
+            this(name, false);
+        }
+
+        RecordingConsumer(String name, boolean perInstance) {
+            this.name = name;
+            this.perInstance = perInstance;
+        }
+
+        @Override
+        public String consumerName() {
+            return name;
+        }
+
+        @Override
+        public boolean perInstance() {
+            return perInstance;
+        }
+
+        @Override
+        public void onChange(ChangeEvent event) {
+            events.add(event);
+        }
+    }
+}
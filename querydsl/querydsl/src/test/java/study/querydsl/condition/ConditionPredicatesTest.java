@@ -0,0 +1,132 @@
+package study.querydsl.condition;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // 문장 수를 세므로 백그라운드 폴링을 멈춘다.
+        "changelog.poll-interval-ms=3600000",
+        "snapshot.reload-interval-ms=3600000",
+        "member.age-update.flush-interval-ms=3600000",
+        "team-age-summary.rebuild-interval-ms=3600000"
+})
+@Transactional
+class ConditionPredicatesTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    MemberRepository memberRepository;
+
+    ConditionFields<MemberSearchCondition> fields = ConditionFields.of(MemberSearchCondition.class);
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("alice", 10, teamA));
+        em.persist(new Member("alex", 20, teamB));
+        em.persist(new Member("bob", 30, teamA));
+        em.flush();
+    }
+
+    @Test
+    public void prefixAndIn() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("al");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactlyInAnyOrder("alice", "alex");
+
+        condition.setTeamIds(Collections.singletonList(teamA.getId()));
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("alice");
+    }
+
+    @Test
+    public void contradictionSkipsDatabase() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(40);
+        condition.setAgeLoe(20);
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(memberRepository.search(condition)).isEmpty();
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)).getTotalElements()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void detectContradiction() {
+        assertThat(fields.isContradictory(condition(c -> {
+            c.setAgeGoe(10);
+            c.setAgeLoe(10);
+        }))).isFalse();
+        assertThat(fields.isContradictory(condition(c -> {
+            c.setAgeGoe(11);
+            c.setAgeLoe(10);
+        }))).isTrue();
+        // username 은 "bob" 인데 접두어는 "al"
+        assertThat(fields.isContradictory(condition(c -> {
+            c.setUsername("bob");
+            c.setUsernamePrefix("al");
+        }))).isTrue();
+        assertThat(fields.isContradictory(condition(c -> c.setTeamIds(Collections.emptyList())))).isTrue();
+        assertThat(fields.isContradictory(condition(c -> c.setTeamIds(Arrays.asList(1L, 2L))))).isFalse();
+        // 빈 문자열은 조건이 아니다.
+        assertThat(fields.values(condition(c -> c.setUsername("")))).isEmpty();
+    }
+
+    @Test
+    public void matchesRow() {
+        MemberSearchCondition condition = condition(c -> {
+            c.setUsernamePrefix("al");
+            c.setAgeLoe(15);
+        });
+        Map<String, Object> row = new HashMap<>();
+        row.put("username", "alice");
+        row.put("age", 10);
+
+        assertThat(fields.matches(fields.values(condition), row)).isTrue();
+        row.put("age", 20);
+        assertThat(fields.matches(fields.values(condition), row)).isFalse();
+    }
+
+    @Test
+    public void missingPath() {
+        assertThatThrownBy(() -> ConditionPredicates.of(MemberSearchCondition.class, Map.of("username", member.username)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MemberSearchCondition condition(Consumer<MemberSearchCondition> setter) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        setter.accept(condition);
+        return condition;
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.dialect;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeBucketDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberFunctionsTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member(" Member1 ", 5, teamA));
+        em.persist(new Member("member1", 12, teamA));
+        em.persist(new Member("MEMBER2", 18, teamB));
+        em.persist(new Member("member3", 31, teamB));
+        em.persist(new Member("member4", 39, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void normalizedUsernameComputedInDb() {
+        List<String> result = new JPAQueryFactory(em)
+                .select(MemberFunctions.normalize(member.username))
+                .from(member)
+                .where(MemberFunctions.normalize(member.username).eq("member1"))
+                .fetch();
+
+        assertThat(result).containsExactly("member1", "member1");
+    }
+
+    @Test
+    public void normalizedUsernameCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameNormalized("  MEMBER1");
+
+        assertThat(condition.getUsernameNormalized()).isEqualTo("member1");
+        assertThat(memberRepository.search(condition))
+                .extracting(MemberTeamDto::getUsername)
+                .containsExactlyInAnyOrder(" Member1 ", "member1");
+    }
+
+    @Test
+    public void groupByAgeBucketInDb() {
+        List<AgeBucketDto> result = memberRepository.countByAgeBucket(new MemberSearchCondition(), 10);
+
+        assertThat(result).extracting(AgeBucketDto::getBucket).containsExactly(0, 10, 30);
+        assertThat(result).extracting(AgeBucketDto::getCount).containsExactly(1L, 2L, 2L);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        assertThat(memberRepository.countByAgeBucket(condition, 20))
+                .extracting(AgeBucketDto::getBucket, AgeBucketDto::getCount)
+                .containsExactly(tuple(0, 1L), tuple(20, 2L));
+    }
+}
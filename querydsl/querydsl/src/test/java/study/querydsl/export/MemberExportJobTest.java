@@ -0,0 +1,115 @@
+package study.querydsl.export;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.CommittedFixture;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 구간별 작업이 각자 트랜잭션을 열기 때문에 데이터를 커밋한 상태로 테스트한다.
+ */
+@SpringBootTest
+class MemberExportJobTest {
+
+    private static final Pattern MEMBER_ID = Pattern.compile("\"memberId\":(\\d+)");
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberExportJob exportJob;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    CommittedFixture fixture;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void before() {
+        fixture = new CommittedFixture(jdbcTemplate);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            fixture.startsAt(teamA.getId());
+            for (int i = 0; i < 50; i++) {
+                em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : null));
+            }
+            em.persist(new Member("comma,\"quote\"", 99));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    public void exportCsv() throws Exception {
+        Path target = tempDir.resolve("members.csv");
+
+        long rows = exportJob.export(target, ExportFormat.CSV);
+
+        // 테이블 전체를 내보내므로 건수는 지금 member 행 수와, 내용은 이 테스트가 만든 행으로 확인한다.
+        List<String> lines = Files.readAllLines(target);
+        assertThat(rows).isEqualTo(memberCount());
+        assertThat(lines).hasSize((int) rows + 1);
+        assertThat(lines.get(0)).isEqualTo("memberId,username,age,teamId,teamName");
+        List<Long> ids = lines.subList(1, lines.size()).stream()
+                .map(line -> Long.parseLong(line.substring(0, line.indexOf(','))))
+                .collect(Collectors.toList());
+        assertThat(ids.stream().filter(fixture::contains)).hasSize(51);
+        assertThat(lines).anyMatch(line -> line.contains(",\"comma,\"\"quote\"\"\",99,,"));
+        // 구간 순서대로 이어붙이므로 id 오름차순이 유지된다.
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    public void exportNdjson() throws Exception {
+        Path target = tempDir.resolve("members.ndjson");
+
+        long rows = exportJob.export(target, ExportFormat.NDJSON);
+
+        List<String> lines = Files.readAllLines(target);
+        assertThat(rows).isEqualTo(memberCount());
+        assertThat(lines).hasSize((int) rows);
+        assertThat(lines.stream().filter(line -> fixture.contains(memberId(line)))).hasSize(51);
+        assertThat(lines).anyMatch(line -> line.contains("\"username\":\"comma,\\\"quote\\\"\",\"age\":99,\"teamId\":null"));
+    }
+
+    private long memberCount() {
+        return jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+    }
+
+    private static Long memberId(String ndjsonLine) {
+        Matcher matcher = MEMBER_ID.matcher(ndjsonLine);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    @Test
+    public void partition() {
+        List<long[]> ranges = MemberExportJob.partition(1, 10, 4);
+        assertThat(ranges).extracting(r -> r[0]).containsExactly(1L, 4L, 7L, 10L);
+        assertThat(ranges).extracting(r -> r[1]).containsExactly(3L, 6L, 9L, 10L);
+    }
+}
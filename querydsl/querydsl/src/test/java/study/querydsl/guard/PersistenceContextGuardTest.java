@@ -0,0 +1,73 @@
+package study.querydsl.guard;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "persistence-guard.warn-threshold=100",
+        "persistence-guard.clear-threshold=50"
+})
+@Transactional
+class PersistenceContextGuardTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PersistenceContextGuard guard;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void warnOncePerThresholdMultiple() {
+        double before = warnings();
+        for (int i = 0; i < 250; i++) {
+            em.persist(new Member("member" + i, i));
+        }
+        assertThat(guard.managedEntityCount(em)).isEqualTo(250);
+        assertThat(warnings() - before).isEqualTo(2);
+
+        // 로드한 엔티티도 센다. (같은 트랜잭션이라 이미 경고한 단계는 다시 경고하지 않는다)
+        em.flush();
+        em.clear();
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        assertThat(members).hasSize(250);
+        assertThat(guard.managedEntityCount(em)).isEqualTo(250);
+        assertThat(warnings() - before).isEqualTo(2);
+    }
+
+    @Test
+    public void checkpointFlushesAndClearsOverThreshold() {
+        Team team = new Team("team");
+        em.persist(team);
+        long summaryCount = meterRegistry.summary("persistence.context.size").count();
+
+        int clears = 0;
+        for (int i = 0; i < 120; i++) {
+            em.persist(new Member("member" + i, i, team));
+            if (guard.checkpoint(em)) {
+                clears++;
+                team = em.getReference(Team.class, team.getId());
+            }
+            assertThat(guard.managedEntityCount(em)).isLessThan(50);
+        }
+
+        assertThat(clears).isEqualTo(2);
+        // flush 마다 크기를 기록한다. (백그라운드 트랜잭션의 flush 도 같은 지표에 들어간다)
+        assertThat(meterRegistry.summary("persistence.context.size").count()).isGreaterThanOrEqualTo(summaryCount + 2);
+        assertThat(em.createQuery("select count(m) from Member m", Long.class).getSingleResult()).isEqualTo(120);
+    }
+
+    private double warnings() {
+        return meterRegistry.counter("persistence.context.warnings").count();
+    }
+}
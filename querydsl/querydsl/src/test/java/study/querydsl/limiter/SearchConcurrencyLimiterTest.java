@@ -0,0 +1,79 @@
+package study.querydsl.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchConcurrencyLimiterTest {
+
+    private static final long FAST = 10_000_000L;   // 10ms
+    private static final long SLOW = 900_000_000L;  // 900ms
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    SearchConcurrencyLimiter limiter = new SearchConcurrencyLimiter(meterRegistry, 1, 4, 500, 0.5);
+
+    @Test
+    public void permitsUpToLimit() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void shrinksWhenSlowAndGrowsWhenFast() {
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        limiter.release(SLOW, false);
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        limiter.release(FAST, false);
+
+        // 제한을 꽉 채워 빠르게 끝나면 조금씩 늘어난다. (최대값은 넘지 않는다)
+        for (int i = 0; i < 100; i++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int j = 0; j < acquired; j++) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void rejectsOverLimitWith503() throws Exception {
+        SearchLoadSheddingFilter filter = new SearchLoadSheddingFilter(limiter, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/members"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(meterRegistry.counter("member.search.shed").count()).isEqualTo(1);
+
+        // 허용된 요청은 끝나면 반납한다.
+        limiter.release(FAST, false);
+        MockHttpServletResponse ok = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/members"), ok, new MockFilterChain());
+        assertThat(ok.getStatus()).isEqualTo(200);
+        assertThat(limiter.getInFlight()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,97 @@
+package study.querydsl.named;
+
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class NamedMemberQueriesTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void paramRenderedAsNamedParameter() {
+        Map<String, String> queries = NamedMemberQueries.render();
+
+        assertThat(queries.get(NamedMemberQueries.SEARCH_BY_ID_RANGE))
+                .contains("between :fromId and :toId")
+                .doesNotContain("?");
+        assertThat(queries.get(NamedMemberQueries.BULK_AGE_ADD))
+                .startsWith("update Member member1")
+                .contains(":amount");
+    }
+
+    @Test
+    public void constantsNotTurnedIntoNamedQuery() {
+        JPAQuery<Long> query = new JPAQuery<Void>()
+                .select(member.id)
+                .from(member)
+                .where(member.age.gt(10), member.username.eq(new Param<>(String.class, "username")));
+
+        assertThatThrownBy(() -> NamedMemberQueries.select(query.getMetadata()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void allRegisteredAtStartup() {
+        for (String name : NamedMemberQueries.render().keySet()) {
+            assertThat(em.createNamedQuery(name)).isNotNull();
+        }
+    }
+
+    @Test
+    public void writesOrmXml(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("META-INF/orm.xml");
+        NamedQueryGenerator.main(new String[]{target.toString()});
+
+        var document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(target.toFile());
+        var namedQueries = document.getElementsByTagName("named-query");
+        assertThat(namedQueries.getLength()).isEqualTo(NamedMemberQueries.render().size());
+        assertThat(namedQueries.item(0).getTextContent().trim())
+                .isEqualTo(NamedMemberQueries.render().get(NamedMemberQueries.SEARCH_BY_ID_RANGE));
+    }
+
+    @Test
+    public void repositoryMethodUsesNamedQuery() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, null);
+        Member member3 = new Member("member3", 30, teamA);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+        em.clear();
+
+        List<MemberTeamDto> range = memberRepository.searchByIdRange(member1.getId(), member3.getId(), 2);
+        assertThat(range).containsExactly(
+                new MemberTeamDto(member1.getId(), "member1", 10, teamA.getId(), "teamA"),
+                new MemberTeamDto(member2.getId(), "member2", 20, null, null));
+
+        assertThat(memberRepository.bulkAgeAdd(1)).isEqualTo(3);
+        assertThat(em.find(Member.class, member3.getId()).getAge()).isEqualTo(31);
+    }
+}
@@ -0,0 +1,156 @@
+package study.querydsl.planner;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.EstimatedPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"paging.estimate.exact-threshold=10", "paging.estimate.cap=50", "statistics.refresh-interval-ms=3600000"})
+@Transactional
+class MemberPageServiceTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberPageService memberPageService;
+    @Autowired
+    MemberStatistics statistics;
+
+    Long teamAId;
+
+    @BeforeEach
+    public void before() {
+        // teamA 5명, teamB 95명
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        teamAId = teamA.getId();
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("member" + i, i, i < 5 ? teamA : teamB));
+        }
+        em.flush();
+        statistics.refresh();
+    }
+
+    // 테스트 트랜잭션 안에서 갱신한 통계에는 롤백된 행이 들어 있다.
+    @AfterTransaction
+    public void restoreStatistics() {
+        statistics.refresh();
+    }
+
+    @Test
+    public void wideSearchIsEstimated() {
+        EstimatedPage<MemberTeamDto> page = memberPageService.searchPageEstimated(new MemberSearchCondition(), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.isTotalExact()).isFalse();
+        assertThat(page.getTotalElements()).isEqualTo(50);
+        assertThat(page.getTotalLabel()).isEqualTo("50+");
+    }
+
+    @Test
+    public void narrowSearchIsExact() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        EstimatedPage<MemberTeamDto> page = memberPageService.searchPageEstimated(condition, PageRequest.of(0, 2));
+
+        assertThat(page.isTotalExact()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalLabel()).isEqualTo("5");
+    }
+
+    @Test
+    public void narrowTeamIdsSearchIsExact() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamIds(List.of(teamAId));
+
+        // 팀 id 별 회원 수로 추정하므로 전체 건수로 떨어지지 않는다.
+        assertThat(statistics.estimate(condition)).isEqualTo(5);
+        EstimatedPage<MemberTeamDto> page = memberPageService.searchPageEstimated(condition, PageRequest.of(0, 5));
+
+        assertThat(page.isTotalExact()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    public void usernameConditionsAreSelective() {
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setUsernamePrefix("member9");
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUsernameNormalized(" Member7 ");
+
+        assertThat(statistics.estimate(prefix)).isLessThanOrEqualTo(10);
+        assertThat(statistics.estimate(normalized)).isEqualTo(1);
+        // 페이지가 꽉 차도 건수를 추정하지 않고 센다.
+        assertThat(memberPageService.searchPageEstimated(prefix, PageRequest.of(0, 5)).isTotalExact()).isTrue();
+    }
+
+    @Test
+    public void estimateUsesHistogram() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(50);
+
+        // teamB 95명 * (50세 이상 50명 / 전체 100명)
+        assertThat(statistics.estimate(condition)).isEqualTo(48);
+    }
+
+    @Test
+    public void undershootingEstimateKeepsNextPage() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(50);
+
+        // 추정 48건, 실제 50건 : 46~50번째 행이 있는 꽉 찬 페이지
+        EstimatedPage<MemberTeamDto> page = memberPageService.searchPageEstimated(condition, PageRequest.of(9, 5));
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.isTotalExact()).isFalse();
+        assertThat(page.getTotalElements()).isEqualTo(51);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    public void pagePastCapKeepsNextPage() {
+        // 100건, cap 50 : 61~65번째 행
+        EstimatedPage<MemberTeamDto> page = memberPageService.searchPageEstimated(new MemberSearchCondition(), PageRequest.of(12, 5));
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.isTotalExact()).isFalse();
+        assertThat(page.getTotalElements()).isEqualTo(66);
+        assertThat(page.getTotalLabel()).isEqualTo("50+");
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    public void lastPageIsExact() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        // 80건 : 페이지가 꽉 차면 뒤에 더 있는지 알 수 없어 추정한다.
+        EstimatedPage<MemberTeamDto> page = memberPageService.searchPageEstimated(condition, PageRequest.of(15, 5));
+
+        assertThat(page.isTotalExact()).isFalse();
+
+        // 덜 찬 마지막 페이지에서는 실제 건수를 안다.
+        EstimatedPage<MemberTeamDto> partial = memberPageService.searchPageEstimated(condition, PageRequest.of(7, 11));
+        assertThat(partial.getContent()).hasSize(3);
+        assertThat(partial.isTotalExact()).isTrue();
+        assertThat(partial.getTotalElements()).isEqualTo(80);
+    }
+}
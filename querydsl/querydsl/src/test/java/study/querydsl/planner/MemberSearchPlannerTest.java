@@ -0,0 +1,144 @@
+package study.querydsl.planner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 통계는 싱글턴이므로 테스트 트랜잭션 안에서 갱신한 값은 롤백 뒤 다시 갱신해 둔다.
+ * 같은 DB 의 다른 데이터와 섞이지 않도록 팀 이름을 따로 쓰고, 전체 건수는 갱신 전과의 차이로 본다.
+ */
+@SpringBootTest(properties = "statistics.refresh-interval-ms=3600000")
+@Transactional
+class MemberSearchPlannerTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberSearchPlanner planner;
+    @Autowired
+    MemberStatistics statistics;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    long totalBefore;
+    long ageCountBefore;
+
+    @BeforeEach
+    public void before() {
+        statistics.refresh();
+        totalBefore = statistics.totalMembers();
+        ageCountBefore = statistics.ageCount(10, 20);
+
+        // planTeamA 2명, planTeamB 100명
+        Team teamA = new Team("planTeamA");
+        Team teamB = new Team("planTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("memberB" + i, i, teamB));
+        }
+        em.flush();
+        statistics.refresh();
+    }
+
+    @AfterTransaction
+    public void restoreStatistics() {
+        statistics.refresh();
+    }
+
+    @Test
+    public void statistics() {
+        assertThat(statistics.totalMembers() - totalBefore).isEqualTo(102);
+        assertThat(statistics.teamMemberCount("planTeamA")).isEqualTo(2);
+        assertThat(statistics.ageCount(10, 20) - ageCountBefore).isEqualTo(13); // planTeamA 2명 + planTeamB 10~20세 11명
+    }
+
+    @Test
+    public void smallTeamUsesTwoPhase() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("planTeamA");
+
+        assertThat(planner.choosePlan(condition)).isEqualTo(SearchPlan.TWO_PHASE);
+
+        List<MemberTeamDto> result = planner.search(condition);
+        assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+        assertThat(result).extracting("teamName").containsOnly("planTeamA");
+        assertThat(meterRegistry.get("member.search.plan").tag("plan", "TWO_PHASE").timer().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void largeTeamUsesJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("planTeamB");
+
+        assertThat(planner.choosePlan(condition)).isEqualTo(SearchPlan.JOIN);
+    }
+
+    @Test
+    public void selectiveAgeUsesJoin() {
+        // 나이 조건으로 1명만 남으면 팀이 작아도 나이 인덱스로 읽는 편이 싸다.
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("planTeamA");
+        condition.setAgeGoe(99);
+
+        assertThat(planner.choosePlan(condition)).isEqualTo(SearchPlan.JOIN);
+        assertThat(planner.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void noTeamCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(95);
+
+        assertThat(planner.choosePlan(condition)).isEqualTo(SearchPlan.JOIN);
+        assertThat(planner.search(condition)).filteredOn("teamName", "planTeamB").hasSize(5);
+    }
+
+    @Test
+    public void newTeamFoundBeforeStatisticsRefresh() {
+        Team teamC = new Team("planTeamC");
+        em.persist(teamC);
+        em.persist(new Member("memberC", 30, teamC));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("planTeamC");
+
+        assertThat(planner.choosePlan(condition)).isEqualTo(SearchPlan.TWO_PHASE);
+        assertThat(planner.search(condition)).extracting("username").containsExactly("memberC");
+    }
+
+    @Test
+    public void renamedTeamFoundBeforeStatisticsRefresh() {
+        Team teamA = em.createQuery("select t from Team t where t.name = 'planTeamA'", Team.class).getSingleResult();
+        teamA.setName("teamRenamed");
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamRenamed");
+        assertThat(planner.search(condition)).extracting("teamName").containsOnly("teamRenamed").hasSize(2);
+
+        condition.setTeamName("planTeamA");
+        assertThat(planner.search(condition)).isEmpty();
+    }
+}
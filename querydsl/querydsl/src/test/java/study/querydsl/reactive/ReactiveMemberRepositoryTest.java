@@ -0,0 +1,162 @@
+package study.querydsl.reactive;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import study.querydsl.CommittedFixture;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.UnsupportedConditionException;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * R2DBC 는 JPA 와 다른 커넥션을 쓰므로 데이터를 커밋한 상태로 테스트한다.
+ */
+@SpringBootTest
+class ReactiveMemberRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    ReactiveMemberRepository reactiveMemberRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    DatabaseClient databaseClient;
+
+    CommittedFixture fixture;
+    List<Long> teamIds;
+
+    @BeforeEach
+    public void before() {
+        fixture = new CommittedFixture(jdbcTemplate);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            fixture.startsAt(teamA.getId());
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            teamIds = List.of(teamA.getId(), teamB.getId());
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    public void search() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        List<MemberTeamDto> result = reactiveMemberRepository.search(condition).collectList().block();
+
+        assertThat(result).extracting("username").containsExactly("member4");
+        assertThat(result.get(0).getTeamName()).isEqualTo("teamB");
+    }
+
+    @Test
+    public void rejectIncludeArchived() {
+        // 보관 회원을 빼고 조용히 돌려주지 않는다.
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setIncludeArchived(true);
+
+        assertThatThrownBy(() -> reactiveMemberRepository.search(condition))
+                .isInstanceOf(UnsupportedConditionException.class)
+                .hasMessageContaining("reactive search");
+    }
+
+    @Test
+    public void backpressure() {
+        // 드라이버(Result.map)에 들어간 요청 수를 센다. 구독자가 요청한 만큼만 넘어가야 한다.
+        AtomicLong requested = new AtomicLong();
+        ReactiveMemberRepository repository = new ReactiveMemberRepository(
+                DatabaseClient.create(countingRequests(databaseClient.getConnectionFactory(), requested)));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamIds(teamIds);
+
+        StepVerifier.create(repository.search(condition), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> assertThat(requested).hasValue(0))
+                .thenRequest(1)
+                .expectNextCount(1)
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> assertThat(requested).hasValue(1))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> assertThat(requested).hasValue(3))
+                .thenCancel()
+                .verify();
+    }
+
+    /**
+     * Connection -> Statement -> Result 를 감싸 Result.map 이 받은 요청 수를 requested 에 더한다.
+     */
+    private static ConnectionFactory countingRequests(ConnectionFactory connectionFactory, AtomicLong requested) {
+        return proxy(ConnectionFactory.class, connectionFactory, requested);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, AtomicLong requested) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result == target) {
+                // Statement.bind 처럼 자기 자신을 돌려주는 메서드
+                return proxy;
+            }
+            switch (method.getName()) {
+                case "create":
+                    return Mono.from((Publisher<? extends Connection>) result).map(connection -> proxy(Connection.class, connection, requested));
+                case "createStatement":
+                    return proxy(Statement.class, result, requested);
+                case "execute":
+                    return Flux.from((Publisher<? extends Result>) result).map(r -> proxy(Result.class, r, requested));
+                case "map":
+                    return Flux.from((Publisher<?>) result).doOnRequest(requested::addAndGet);
+                default:
+                    return result;
+            }
+        });
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -11,6 +12,7 @@ import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -73,4 +75,60 @@ class MemberRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void searchFieldsTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        em.persist(member1);
+        em.persist(member2);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+
+        // team 필드가 없으면 조인 없이 member 만 조회
+        List<Map<String, Object>> result = memberRepository.searchFields(condition, MemberField.parse("username,age"));
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0)).containsOnlyKeys("username", "age");
+        assertThat(result.get(0)).containsEntry("username", "member2").containsEntry("age", 20);
+
+        // teamId 는 외래키, teamName 은 조인
+        condition.setTeamName("teamA");
+        List<Map<String, Object>> withTeam = memberRepository.searchFields(condition, MemberField.parse("teamId,teamName"));
+        assertThat(withTeam.get(0))
+                .containsEntry("teamId", teamA.getId())
+                .containsEntry("teamName", "teamA");
+    }
+
+    @Test
+    public void usernameMatchingTeamNameTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("teamA", 10, teamB);
+        Member member2 = new Member("teamB", 20);
+        Member member3 = new Member("teamC", 30);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        // 팀 정보는 소속 팀이 아니라 이름이 같은 팀
+        assertThat(memberRepository.searchByUsernameMatchingTeamName(condition, false)).containsExactly(
+                new MemberTeamDto(member1.getId(), "teamA", 10, teamA.getId(), "teamA"),
+                new MemberTeamDto(member2.getId(), "teamB", 20, teamB.getId(), "teamB"));
+
+        condition.setAgeGoe(20);
+        assertThat(memberRepository.searchByUsernameMatchingTeamName(condition, true)).containsExactly(
+                new MemberTeamDto(member2.getId(), "teamB", 20, teamB.getId(), "teamB"),
+                new MemberTeamDto(member3.getId(), "teamC", 30, null, null));
+
+        // 이름 조인은 team.name 인덱스를 탄다.
+        String plan = (String) em.createNativeQuery("explain select m.member_id from member m join team t on m.username = t.name")
+                .getSingleResult();
+        assertThat(plan).contains("IDX_TEAM_NAME");
+    }
+}
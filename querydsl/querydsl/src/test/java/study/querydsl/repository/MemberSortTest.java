@@ -0,0 +1,139 @@
+package study.querydsl.repository;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=study.querydsl.repository.CapturingStatementInspector")
+@Transactional
+class MemberSortTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 20, teamA));
+        em.persist(new Member("member2", 10, teamA));
+        em.persist(new Member("member3", 20, teamA));
+        em.persist(new Member("member4", 30, teamA));
+    }
+
+    @Test
+    public void sortWithTiebreaker() {
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(new MemberSearchCondition(), pageRequest);
+
+        // 나이가 같은 member1, member3 은 id 내림차순
+        assertThat(result.getContent()).extracting("username").containsExactly("member4", "member3", "member1");
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void defaultSort() {
+        Page<MemberTeamDto> result = memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(1, 2));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member3", "member4");
+    }
+
+    @Test
+    public void rejectSort() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 조인한 team 컬럼, 여러 속성 조합, 인덱스가 없는 방향은 인덱스로 정렬할 수 없다.
+        assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10, Sort.by("teamName"))))
+                .isInstanceOf(InvalidSortException.class);
+        assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10, Sort.by("age", "username"))))
+                .isInstanceOf(InvalidSortException.class);
+        assertThatThrownBy(() -> memberRepository.searchPageSimple(condition, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "username"))))
+                .isInstanceOf(InvalidSortException.class);
+        assertThatThrownBy(() -> memberRepository.searchPageSimple(condition, PageRequest.of(0, 10, Sort.by(Sort.Order.asc("username").ignoreCase()))))
+                .isInstanceOf(InvalidSortException.class);
+    }
+
+    /**
+     * 허용한 정렬은 인덱스 순서로 읽어 별도 정렬 단계가 없다. (H2 EXPLAIN: "index sorted")
+     * 저장소가 실제로 실행한 SQL(team left join 포함)의 계획을 본다.
+     */
+    @Test
+    public void explainIndexSorted() {
+        assertThat(explain(repositorySql(Sort.by(Sort.Direction.DESC, "memberId")))).contains("IDX_MEMBER_ID_DESC").contains("index sorted");
+        assertThat(explain(repositorySql(Sort.by(Sort.Direction.ASC, "age")))).contains("IDX_MEMBER_AGE").contains("index sorted");
+        assertThat(explain(repositorySql(Sort.by(Sort.Direction.DESC, "age")))).contains("IDX_MEMBER_AGE_DESC").contains("index sorted");
+        assertThat(explain(repositorySql(Sort.by(Sort.Direction.ASC, "username")))).contains("IDX_MEMBER_USERNAME").contains("index sorted");
+    }
+
+    /**
+     * 거절하는 정렬은 인덱스 순서와 맞지 않아 전체를 읽고 정렬한다.
+     * (저장소가 실행하지 않으므로 실제 SQL 의 order by 만 바꿔서 본다)
+     */
+    @Test
+    public void explainRejectedSortNeedsSort() {
+        String sql = repositorySql(Sort.by(Sort.Direction.ASC, "username"));
+        String alias = sql.replaceAll("(?s).* from member (\\w+) .*", "$1");
+
+        assertThat(explain(withOrderBy(sql, alias + ".username desc, " + alias + ".member_id desc"))).doesNotContain("index sorted");
+        assertThat(explain(withOrderBy(sql, alias + ".age desc, " + alias + ".username asc"))).doesNotContain("index sorted");
+    }
+
+    /**
+     * searchPageComplex 가 실행한 내용 조회 SQL
+     */
+    private String repositorySql(Sort sort) {
+        em.flush();
+        List<String> captured;
+        CapturingStatementInspector.start();
+        try {
+            memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 10, sort), () -> 0L);
+        } finally {
+            captured = CapturingStatementInspector.stop();
+        }
+        assertThat(captured).hasSize(1);
+        assertThat(captured.get(0)).contains("left outer join team");
+        return captured.get(0);
+    }
+
+    private static String withOrderBy(String sql, String orderBy) {
+        return sql.replaceAll("order by .* limit", "order by " + orderBy + " limit");
+    }
+
+    private String explain(String sql) {
+        String[] plan = new String[1];
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("explain " + sql)) {
+                // 페이지 크기 등 파라미터는 계획에 영향이 없다.
+                for (int i = 1; i <= ps.getParameterMetaData().getParameterCount(); i++) {
+                    ps.setInt(i, 10);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    plan[0] = rs.getString(1);
+                }
+            }
+        });
+        return plan[0];
+    }
+}
@@ -0,0 +1,117 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 같은 DB 에 다른 팀이 있을 수 있으므로 준비 데이터 팀은 id 순으로 기존 팀들 뒤에 온다고 보고 센다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=study.querydsl.repository.CapturingStatementInspector")
+@Transactional
+class TeamRepositoryTest {
+
+    private static final int MEMBERS_PER_TEAM = 2000;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamRepository teamRepository;
+
+    // 준비 데이터 전에 있던 팀 수
+    int teamsBefore;
+
+    @BeforeEach
+    public void before() {
+        teamsBefore = (int) teamRepository.count();
+        for (int t = 0; t < 3; t++) {
+            Team saved = new Team("team" + t);
+            em.persist(saved);
+            for (int i = 0; i < MEMBERS_PER_TEAM; i++) {
+                em.persist(new Member("team" + t + "-member" + i, i % 100, saved));
+            }
+            em.flush();
+            em.clear();
+        }
+    }
+
+    @Test
+    public void fetchJoinDuplicatesTeamRows() {
+        List<Team> result = new JPAQueryFactory(em)
+                .selectFrom(team)
+                .join(team.members, member).fetchJoin()
+                .where(team.name.in("team0", "team1", "team2"))
+                .fetch();
+
+        // 팀은 3개지만 회원 수만큼 행이 나온다.
+        assertThat(result).hasSize(3 * MEMBERS_PER_TEAM);
+        assertThat(result.stream().distinct()).hasSize(3);
+    }
+
+    @Test
+    public void findTeamsWithMembers() {
+        // 첫 페이지 끝에 team0, team1 이 오도록 기존 팀 수만큼 페이지를 늘린다.
+        List<String> sql;
+        Page<TeamMembersDto> page;
+        CapturingStatementInspector.start();
+        try {
+            page = teamRepository.findTeamsWithMembers(null, PageRequest.of(0, teamsBefore + 2));
+        } finally {
+            sql = CapturingStatementInspector.stop();
+        }
+
+        assertThat(page.getTotalElements()).isEqualTo(teamsBefore + 3);
+        List<TeamMembersDto> fixtureTeams = page.getContent().subList(teamsBefore, teamsBefore + 2);
+        assertThat(fixtureTeams).extracting("teamName").containsExactly("team0", "team1");
+        for (TeamMembersDto dto : fixtureTeams) {
+            assertThat(dto.getMembers()).hasSize(MEMBERS_PER_TEAM);
+            assertThat(dto.getMembers()).extracting(MemberTeamDto::getTeamId).containsOnly(dto.getTeamId());
+        }
+
+        // 팀 페이지, 회원 IN, count 세 번만 조회하고 엔티티는 만들지 않는다.
+        assertThat(sql).hasSize(3);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void lastPageSkipsCountQuery() {
+        List<String> sql;
+        Page<TeamMembersDto> page;
+        CapturingStatementInspector.start();
+        try {
+            page = teamRepository.findTeamsWithMembers(null, PageRequest.of(1, teamsBefore + 2));
+        } finally {
+            sql = CapturingStatementInspector.stop();
+        }
+
+        assertThat(page.getContent()).extracting("teamName").containsExactly("team2");
+        assertThat(page.getTotalElements()).isEqualTo(teamsBefore + 3);
+        assertThat(sql).hasSize(2);
+    }
+
+    @Test
+    public void findTeamsWithMembersByName() {
+        Page<TeamMembersDto> page = teamRepository.findTeamsWithMembers("team1", PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0).getMembers()).first()
+                .extracting(MemberTeamDto::getUsername).isEqualTo("team1-member0");
+    }
+}
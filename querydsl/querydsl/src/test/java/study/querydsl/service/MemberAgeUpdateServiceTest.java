@@ -0,0 +1,131 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.changelog.ChangeLogRepository;
+import study.querydsl.changelog.ChangeType;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "member.age-update.flush-interval-ms=3600000")
+@Transactional
+class MemberAgeUpdateServiceTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberAgeUpdateService updateService;
+    @Autowired
+    ChangeLogRepository changeLogRepository;
+
+    @Test
+    public void concurrentIncrement() throws Exception {
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        Member member3 = new Member("member3", 30);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+
+        // 8개 스레드가 member1, member2 에 각각 1000번씩 +1, member3 에는 +1 후 -1
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    updateService.increment(member1.getId(), 1);
+                    updateService.increment(member2.getId(), 1);
+                }
+                updateService.increment(member3.getId(), 1);
+                updateService.increment(member3.getId(), -1);
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // 증감값이 같은 member1, member2 는 UPDATE 한 번으로 묶이고, 합이 0 인 member3 은 제외된다.
+        assertThat(updateService.flush()).isEqualTo(1);
+        assertThat(updateService.pendingCount()).isZero();
+
+        em.clear();
+        assertThat(em.find(Member.class, member1.getId()).getAge()).isEqualTo(8010);
+        assertThat(em.find(Member.class, member2.getId()).getAge()).isEqualTo(8020);
+        assertThat(em.find(Member.class, member3.getId()).getAge()).isEqualTo(30);
+    }
+
+    @Test
+    public void groupByDelta() {
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+
+        updateService.increment(member1.getId(), 1);
+        updateService.increment(member2.getId(), 5);
+
+        assertThat(updateService.flush()).isEqualTo(2);
+        assertThat(updateService.flush()).isZero();
+
+        em.clear();
+        assertThat(em.find(Member.class, member1.getId()).getAge()).isEqualTo(11);
+        assertThat(em.find(Member.class, member2.getId()).getAge()).isEqualTo(25);
+    }
+
+    @Test
+    public void teamSummaryFollowsDelta() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamA);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+
+        updateService.increment(member1.getId(), 5);
+        updateService.increment(member2.getId(), 5);
+        updateService.increment(member3.getId(), -10);
+        updateService.flush();
+
+        // 팀 전체를 다시 집계하지 않고 증감만 반영한다. (sum 60 + 5*2 - 10, min 15, max 25)
+        Object[] summary = (Object[]) em.createNativeQuery(
+                        "select member_count, age_sum, age_min, age_max from team_age_summary where team_id = ?")
+                .setParameter(1, teamA.getId())
+                .getSingleResult();
+        assertThat(summary).extracting(value -> ((Number) value).longValue()).containsExactly(3L, 60L, 15L, 25L);
+        assertThat(changeLogRepository.findAll()).extracting("changeType")
+                .contains(ChangeType.BULK_AGE_ADD)
+                .doesNotContain(ChangeType.BULK_UPDATE);
+    }
+
+    @Test
+    public void flushOnShutdown() {
+        Member member1 = new Member("member1", 10);
+        em.persist(member1);
+        em.flush();
+
+        // 주기 flush 가 돌기 전에 종료된다.
+        updateService.increment(member1.getId(), 3);
+        updateService.close();
+
+        assertThat(updateService.pendingCount()).isZero();
+        em.clear();
+        assertThat(em.find(Member.class, member1.getId()).getAge()).isEqualTo(13);
+    }
+}
@@ -0,0 +1,135 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.changelog.ChangeLogRepository;
+import study.querydsl.changelog.ChangeType;
+import study.querydsl.dto.MemberSyncRecord;
+import study.querydsl.dto.UpsertResult;
+import study.querydsl.entity.ChangeLog;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSyncServiceTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberSyncService memberSyncService;
+    @Autowired
+    ChangeLogRepository changeLogRepository;
+
+    @Test
+    public void insertNewAndUpdateChangedOnly() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        memberSyncService.sync(List.of(
+                new MemberSyncRecord(1L, "member1", 10, teamA.getId()),
+                new MemberSyncRecord(2L, "member2", 20, teamA.getId()),
+                new MemberSyncRecord(3L, "member3", 30, teamA.getId())));
+
+        List<MemberSyncRecord> records = List.of(
+                new MemberSyncRecord(1L, "member1", 10, teamA.getId()),   // 그대로
+                new MemberSyncRecord(2L, "member2", 21, teamA.getId()),   // 나이
+                new MemberSyncRecord(3L, "member3", 30, teamB.getId()),   // 팀
+                new MemberSyncRecord(100_001L, "new1", 40, teamB.getId()),
+                new MemberSyncRecord(100_002L, "new2", 50, null));
+
+        UpsertResult result = memberSyncService.sync(records);
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(result.getUnchanged()).isEqualTo(1);
+
+        assertThat(findByExternalId(2L).getAge()).isEqualTo(21);
+        assertThat(findByExternalId(3L).getTeam().getId()).isEqualTo(teamB.getId());
+        Member new2 = findByExternalId(100_002L);
+        assertThat(new2.getUsername()).isEqualTo("new2");
+        assertThat(new2.getTeam()).isNull();
+        assertThat(((Number) em.createNativeQuery("select count(*) from member_staging").getSingleResult()).longValue()).isZero();
+        assertThat(changeLogRepository.findAll())
+                .extracting(ChangeLog::getChangeType)
+                .contains(ChangeType.BULK_UPSERT);
+
+        // 같은 목록을 다시 반영하면 바뀌는 행이 없다.
+        UpsertResult again = memberSyncService.sync(records);
+        assertThat(again.getInserted()).isZero();
+        assertThat(again.getUpdated()).isZero();
+        assertThat(again.getUnchanged()).isEqualTo(5);
+    }
+
+    @Test
+    public void externalIdDoesNotOverwriteLocalMember() {
+        Member local = new Member("local", 10);
+        em.persist(local);
+        em.flush();
+
+        // 로컬 member_id 와 같은 값의 상위 키
+        UpsertResult result = memberSyncService.sync(List.of(new MemberSyncRecord(local.getId(), "upstream", 99, null)));
+        assertThat(result.getInserted()).isEqualTo(1);
+
+        Member kept = em.find(Member.class, local.getId());
+        assertThat(kept.getUsername()).isEqualTo("local");
+        assertThat(kept.getAge()).isEqualTo(10);
+        Member upstream = findByExternalId(local.getId());
+        assertThat(upstream.getId()).isNotEqualTo(local.getId());
+    }
+
+    @Test
+    public void persistAfterUpsertGetsFreshId() {
+        List<MemberSyncRecord> records = new ArrayList<>();
+        for (long id = 300_000; id < 300_100; id++) {
+            records.add(new MemberSyncRecord(id, "member" + id, 20, null));
+        }
+        memberSyncService.sync(records);
+        long maxId = ((Number) em.createNativeQuery("select max(member_id) from member").getSingleResult()).longValue();
+
+        // upsert 가 시퀀스에서 id 를 받았으므로 이후 persist 와 겹치지 않는다.
+        Member member = new Member("after", 30);
+        em.persist(member);
+        em.flush();
+        assertThat(member.getId()).isGreaterThan(maxId);
+    }
+
+    @Test
+    public void syncThousandsAtOnce() {
+        Team team = new Team("team");
+        em.persist(team);
+
+        List<MemberSyncRecord> records = new ArrayList<>();
+        for (long id = 200_000; id < 205_000; id++) {
+            records.add(new MemberSyncRecord(id, "member" + id, (int) (id % 100), team.getId()));
+        }
+        assertThat(memberSyncService.sync(records).getInserted()).isEqualTo(5000);
+
+        // 절반만 나이를 바꿔 다시 보낸다.
+        List<MemberSyncRecord> changed = new ArrayList<>();
+        for (MemberSyncRecord record : records) {
+            int age = record.getExternalId() % 2 == 0 ? record.getAge() + 1 : record.getAge();
+            changed.add(new MemberSyncRecord(record.getExternalId(), record.getUsername(), age, record.getTeamId()));
+        }
+        UpsertResult result = memberSyncService.sync(changed);
+        assertThat(result.getInserted()).isZero();
+        assertThat(result.getUpdated()).isEqualTo(2500);
+        assertThat(result.getUnchanged()).isEqualTo(2500);
+    }
+
+    private Member findByExternalId(long externalId) {
+        Number memberId = (Number) em.createNativeQuery("select member_id from member where external_id = :externalId")
+                .setParameter("externalId", externalId)
+                .getSingleResult();
+        return em.find(Member.class, memberId.longValue());
+    }
+}
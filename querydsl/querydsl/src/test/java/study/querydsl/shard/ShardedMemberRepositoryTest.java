@@ -0,0 +1,149 @@
+package study.querydsl.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.UnsupportedConditionException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.reactive.SMember.member;
+import static study.querydsl.reactive.STeam.team;
+
+/**
+ * 내장 H2 세 개를 샤드로 띄워 라우팅과 병합/페이징을 확인한다.
+ */
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "sharding.urls=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1"
+})
+class ShardedMemberRepositoryTest {
+
+    @Autowired
+    Shards shards;
+    @Autowired
+    ShardedMemberRepository shardedMemberRepository;
+
+    List<Long> teamIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 4; i++) {
+            teamIds.add(shardedMemberRepository.saveTeam("team" + i));
+        }
+        // 나이가 겹치는 회원 40명을 팀에 고르게 나눈다.
+        for (int i = 0; i < 40; i++) {
+            shardedMemberRepository.saveMember("member" + (i % 13), i % 7, teamIds.get(i % 4));
+        }
+    }
+
+    @AfterEach
+    public void after() {
+        for (Shard shard : shards.all()) {
+            shard.getQueryFactory().delete(member).execute();
+            shard.getQueryFactory().delete(team).execute();
+        }
+    }
+
+    @Test
+    public void memberStoredInTeamShard() {
+        assertThat(teamIds.stream().map(shards::forTeam).distinct()).hasSize(3);
+
+        for (Shard shard : shards.all()) {
+            List<Long> memberTeamIds = shard.getQueryFactory().select(member.teamId).from(member).fetch();
+            assertThat(memberTeamIds).allMatch(teamId -> shards.forTeam(teamId) == shard);
+        }
+    }
+
+    @Test
+    public void mergesAllShardsInIdOrder() {
+        List<MemberTeamDto> result = shardedMemberRepository.search(new MemberSearchCondition());
+
+        assertThat(result).hasSize(40);
+        assertThat(result).isSortedAccordingTo(Comparator.comparing(MemberTeamDto::getMemberId));
+        assertThat(result).allMatch(dto -> dto.getTeamName().equals("team" + teamIds.indexOf(dto.getTeamId())));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(3);
+        assertThat(shardedMemberRepository.search(condition))
+                .extracting(MemberTeamDto::getTeamName)
+                .containsOnly("team1")
+                .hasSize((int) result.stream().filter(dto -> dto.getTeamName().equals("team1") && dto.getAge() >= 3).count());
+    }
+
+    @Test
+    public void teamConditionQueriesOnlyThatShard() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamIds(List.of(teamIds.get(1)));
+
+        assertThat(shardedMemberRepository.targets(condition)).containsExactly(shards.forTeam(teamIds.get(1)));
+        assertThat(shardedMemberRepository.search(condition))
+                .hasSize(10)
+                .allMatch(dto -> dto.getTeamId().equals(teamIds.get(1)));
+    }
+
+    @Test
+    public void pagingAcrossShardsMatchesGlobalSort() {
+        List<MemberTeamDto> all = shardedMemberRepository.search(new MemberSearchCondition());
+
+        for (Sort sort : List.of(Sort.by("memberId"), Sort.by(Sort.Direction.DESC, "age"), Sort.by("username"))) {
+            List<MemberTeamDto> expected = all.stream()
+                    .sorted(ShardSort.of(sort).getComparator())
+                    .collect(Collectors.toList());
+
+            List<MemberTeamDto> paged = new ArrayList<>();
+            for (int page = 0; page < 6; page++) {
+                Page<MemberTeamDto> result = shardedMemberRepository.searchPage(new MemberSearchCondition(), PageRequest.of(page, 7, sort));
+                assertThat(result.getTotalElements()).isEqualTo(40);
+                paged.addAll(result.getContent());
+            }
+            assertThat(paged).extracting(MemberTeamDto::getMemberId)
+                    .as(sort.toString())
+                    .containsExactlyElementsOf(expected.stream().map(MemberTeamDto::getMemberId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void keysetPagingVisitsAll() {
+        List<Long> ids = new ArrayList<>();
+        Long last = null;
+        while (true) {
+            List<MemberTeamDto> chunk = shardedMemberRepository.searchAfter(new MemberSearchCondition(), last, 6);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            chunk.forEach(dto -> ids.add(dto.getMemberId()));
+            last = chunk.get(chunk.size() - 1).getMemberId();
+        }
+
+        assertThat(ids).hasSize(40).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void rejectIncludeArchived() {
+        // 샤드에는 보관 회원이 없으므로 빼고 돌려주지 않고 거절한다.
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setIncludeArchived(true);
+
+        assertThatThrownBy(() -> shardedMemberRepository.search(condition))
+                .isInstanceOf(UnsupportedConditionException.class)
+                .hasMessageContaining("sharded search");
+        assertThatThrownBy(() -> shardedMemberRepository.searchPage(condition, PageRequest.of(0, 10)))
+                .isInstanceOf(UnsupportedConditionException.class);
+        assertThatThrownBy(() -> shardedMemberRepository.searchAfter(condition, null, 10))
+                .isInstanceOf(UnsupportedConditionException.class);
+    }
+}
@@ -0,0 +1,129 @@
+package study.querydsl.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.changelog.ChangeLogPublisher;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "snapshot.reload-interval-ms=3600000")
+@Transactional
+class MemberSnapshotTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberSnapshotService snapshotService;
+    @Autowired
+    MemberLookupService lookupService;
+    @Autowired
+    ChangeLogPublisher publisher;
+
+    /**
+     * 테스트 트랜잭션 안에서 적재한 스냅샷에는 롤백된 행이 들어 있으므로 롤백 뒤 다시 적재한다.
+     */
+    @AfterTransaction
+    public void restoreSnapshot() {
+        snapshotService.reload();
+    }
+
+    @Test
+    public void lookup() {
+        MemberSnapshot snapshot = new MemberSnapshot.Builder(2)
+                .add(1L, "member1", 10, 100L)
+                .add(2L, "member2", 20, null)
+                .add(3L, "member1", 30, 100L)
+                .add(4L, null, 40, null)
+                .add(5L, "회원", 50, 200L)
+                .build();
+
+        int rec = snapshot.findById(2L);
+        assertThat(snapshot.id(rec)).isEqualTo(2L);
+        assertThat(snapshot.username(rec)).isEqualTo("member2");
+        assertThat(snapshot.age(rec)).isEqualTo(20);
+        assertThat(snapshot.teamId(rec)).isEqualTo(MemberSnapshot.NO_TEAM);
+        assertThat(snapshot.username(snapshot.findById(4L))).isNull();
+        assertThat(snapshot.findById(6L)).isEqualTo(MemberSnapshot.NOT_FOUND);
+
+        // username 은 중복될 수 있다.
+        List<Long> ids = new ArrayList<>();
+        snapshot.forEachByUsername("member1", r -> ids.add(snapshot.id(r)));
+        assertThat(ids).containsExactlyInAnyOrder(1L, 3L);
+
+        assertThat(snapshot.age(snapshot.findFirstByUsername("회원"))).isEqualTo(50);
+        assertThat(snapshot.findFirstByUsername("member9")).isEqualTo(MemberSnapshot.NOT_FOUND);
+    }
+
+    @Test
+    public void manyRows() {
+        MemberSnapshot.Builder builder = new MemberSnapshot.Builder(1);
+        for (long id = 1; id <= 10_000; id++) {
+            builder.add(id, "member" + id, (int) (id % 100), id % 10);
+        }
+        MemberSnapshot snapshot = builder.build();
+
+        assertThat(snapshot.size()).isEqualTo(10_000);
+        for (long id = 1; id <= 10_000; id++) {
+            assertThat(snapshot.id(snapshot.findById(id))).isEqualTo(id);
+        }
+        assertThat(snapshot.id(snapshot.findFirstByUsername("member7777"))).isEqualTo(7777L);
+    }
+
+    @Test
+    public void reload() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20));
+
+        MemberSnapshot before = snapshotService.current();
+        MemberSnapshot snapshot = snapshotService.reload();
+
+        assertThat(snapshotService.current()).isSameAs(snapshot).isNotSameAs(before);
+        int rec = snapshot.findFirstByUsername("member1");
+        assertThat(snapshot.id(rec)).isEqualTo(member1.getId());
+        assertThat(snapshot.teamId(rec)).isEqualTo(teamA.getId());
+        assertThat(snapshot.teamName(rec)).isEqualTo("teamA");
+    }
+
+    @Test
+    public void lookupFallsBackWhileDirty() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.flush();
+        snapshotService.reload();
+
+        // 스냅샷에서 찾는다.
+        assertThat(snapshotService.isDirty()).isFalse();
+        assertThat(lookupService.findById(member1.getId()))
+                .contains(new MemberTeamDto(member1.getId(), "member1", 10, teamA.getId(), "teamA"));
+        assertThat(lookupService.findById(-1L)).isEmpty();
+
+        // 변경이 전달되면 다시 적재될 때까지 DB 에서 읽는다.
+        member1.setAge(11);
+        em.flush();
+        while (publisher.publish(snapshotService) > 0) {
+            // 밀린 이벤트까지 모두 전달한다.
+        }
+        assertThat(snapshotService.isDirty()).isTrue();
+        assertThat(lookupService.findById(member1.getId()))
+                .contains(new MemberTeamDto(member1.getId(), "member1", 11, teamA.getId(), "teamA"));
+
+        snapshotService.reload();
+        assertThat(snapshotService.isDirty()).isFalse();
+        assertThat(snapshotService.current().age(snapshotService.current().findById(member1.getId()))).isEqualTo(11);
+    }
+}
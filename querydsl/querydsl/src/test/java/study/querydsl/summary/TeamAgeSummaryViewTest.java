@@ -0,0 +1,205 @@
+package study.querydsl.summary;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.CommittedFixture;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.CapturingStatementInspector;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 커밋 후에 메모리가 갱신되므로 데이터를 커밋한 상태로 테스트한다.
+ */
+@SpringBootTest(properties = {
+        "changelog.poll-interval-ms=100",
+        "team-age-summary.rebuild-interval-ms=100",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=study.querydsl.repository.CapturingStatementInspector"
+})
+class TeamAgeSummaryViewTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    TeamAgeSummaryView view;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate tx;
+    CommittedFixture fixture;
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        fixture = new CommittedFixture(jdbcTemplate);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 45, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+        fixture.startsAt(teamAId);
+    }
+
+    @AfterEach
+    public void after() {
+        fixture.cleanUp();
+        view.rebuild();
+    }
+
+    @Test
+    public void sameTuplesAsGroupBy() {
+        assertThat(averages(view.averageAgeByTeamName())).isEqualTo(Map.of("teamA", 15.0, "teamB", 37.5));
+        assertThat(averages(view.averageAgeByTeamName())).isEqualTo(groupBy());
+
+        TeamAgeStats teamB = view.team(teamBId);
+        assertThat(teamB.getCount()).isEqualTo(2);
+        assertThat(teamB.getSum()).isEqualTo(75);
+        assertThat(teamB.getMin()).isEqualTo(30);
+        assertThat(teamB.getMax()).isEqualTo(45);
+    }
+
+    @Test
+    public void entityChangesAppliedAfterCommit() {
+        view.teams();
+        tx.executeWithoutResult(status -> {
+            // 최솟값 회원을 지우고, 최댓값 회원의 나이를 낮추고, 한 명은 팀을 옮긴다.
+            Member member3 = em.createQuery("select m from Member m where m.username = 'member3'", Member.class).getSingleResult();
+            Member member4 = em.createQuery("select m from Member m where m.username = 'member4'", Member.class).getSingleResult();
+            Member member1 = em.createQuery("select m from Member m where m.username = 'member1'", Member.class).getSingleResult();
+            em.remove(member3);
+            member4.setAge(40);
+            member1.changeTeam(em.getReference(Team.class, teamBId));
+        });
+
+        TeamAgeStats teamA = view.team(teamAId);
+        TeamAgeStats teamB = view.team(teamBId);
+        assertThat(teamA.getCount()).isEqualTo(1);
+        assertThat(teamA.getMin()).isEqualTo(20);
+        assertThat(teamB.getCount()).isEqualTo(2);
+        assertThat(teamB.getSum()).isEqualTo(50);
+        assertThat(teamB.getMin()).isEqualTo(10);
+        assertThat(teamB.getMax()).isEqualTo(40);
+        assertThat(averages(view.averageAgeByTeamName())).isEqualTo(groupBy());
+    }
+
+    @Test
+    public void rolledBackChangesIgnored() {
+        view.teams();
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member5", 90, em.getReference(Team.class, teamAId)));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(view.team(teamAId).getCount()).isEqualTo(2);
+        assertThat(view.team(teamAId).getMax()).isEqualTo(20);
+    }
+
+    @Test
+    public void bulkDmlRebuildsFromChangeLog() throws InterruptedException {
+        view.teams();
+        tx.executeWithoutResult(status -> memberRepository.bulkAgeAdd(1));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (view.team(teamAId).getSum() != 32 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(view.team(teamAId).getSum()).isEqualTo(32);
+        assertThat(view.team(teamBId).getMax()).isEqualTo(46);
+        assertThat(averages(view.averageAgeByTeamName())).isEqualTo(groupBy());
+    }
+
+    @Test
+    public void readOnlyTransactionUsesView() {
+        view.teams();
+
+        // 폴링 스레드의 쿼리는 빼고 이 스레드가 실행한 SQL 만 센다.
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<TeamAgeStats> teams;
+        List<String> executed;
+        CapturingStatementInspector.start();
+        try {
+            teams = readOnly.execute(status -> view.teams());
+        } finally {
+            executed = CapturingStatementInspector.stop();
+        }
+
+        assertThat(teams).extracting(TeamAgeStats::getTeamName).containsExactly("teamA", "teamB");
+        assertThat(executed).isEmpty();
+    }
+
+    @Test
+    public void pendingChangeInTransactionIsVisible() {
+        view.teams();
+        tx.executeWithoutResult(status -> {
+            // flush 전 변경도 보인다.
+            em.persist(new Member("member5", 90, em.getReference(Team.class, teamAId)));
+            assertThat(view.team(teamAId).getCount()).isEqualTo(3);
+            assertThat(view.team(teamAId).getMax()).isEqualTo(90);
+            status.setRollbackOnly();
+        });
+
+        assertThat(view.team(teamAId).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void rebuildWaitsForIncrementalWrites() throws Exception {
+        view.teams();
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member5", 90, em.getReference(Team.class, teamAId)));
+            em.flush();
+            // 요약 테이블을 고친 트랜잭션이 끝나기 전에는 다시 집계하지 않는다.
+            assertThat(CompletableFuture.supplyAsync(view::rebuild).join()).isFalse();
+        });
+
+        assertThat(view.rebuild()).isTrue();
+        assertThat(view.team(teamAId).getCount()).isEqualTo(3);
+        assertThat(view.team(teamAId).getMax()).isEqualTo(90);
+        assertThat(averages(view.averageAgeByTeamName())).isEqualTo(groupBy());
+    }
+
+    private Map<String, Double> groupBy() {
+        return tx.execute(status -> averages(new JPAQueryFactory(em)
+                .select(team.name, member.age.avg())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .fetch()));
+    }
+
+    private static Map<String, Double> averages(List<Tuple> tuples) {
+        return tuples.stream().collect(Collectors.toMap(t -> t.get(team.name), t -> t.get(member.age.avg())));
+    }
+}
@@ -0,0 +1,170 @@
+package study.querydsl.timeout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.annotations.QueryHints;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.QueryTimeoutException;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "query-timeout.methods.searchByIdRange=1234")
+class QueryTimeoutTest {
+
+    // H2 에서 수 초 이상 걸리는 쿼리
+    private static final String SLOW_SQL = "select count(*) from system_range(1, 100000) a, system_range(1, 100000) b where a.x + b.x = 7";
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    QueryTimeouts queryTimeouts;
+    @Autowired
+    CancellableSearch cancellableSearch;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void repositoryProxyAppliesMethodTimeout() {
+        assertThat(Arrays.stream(((Advised) memberRepository).getAdvisors()))
+                .anyMatch(advisor -> advisor.getAdvice() instanceof QueryTimeoutInterceptor);
+        assertThat(queryTimeouts.timeoutMillis("searchByIdRange")).isEqualTo(1234);
+        assertThat(queryTimeouts.timeoutMillis("search")).isEqualTo(5000);
+    }
+
+    @Test
+    public void remainingTimeIsSetAsQueryHint() {
+        try (QueryDeadline.Scope ignored = QueryDeadline.start(1500)) {
+            javax.persistence.Query query = new TimeLimitedJPAQueryFactory(em).selectFrom(QMember.member).createQuery();
+            // 남은 시간을 초로 올림
+            assertThat(query.getHints()).containsEntry(QueryHints.TIMEOUT_HIBERNATE, 2);
+        }
+        javax.persistence.Query unlimited = new TimeLimitedJPAQueryFactory(em).selectFrom(QMember.member).createQuery();
+        assertThat(unlimited.getHints()).doesNotContainKey(QueryHints.TIMEOUT_HIBERNATE);
+    }
+
+    @Test
+    public void slowQueryTimesOutAtDeadline() {
+        // statement timeout 이 난 커넥션은 풀에서 버려지므로 트랜잭션 밖에서 실행하고 준비 데이터는 이름으로 지운다.
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < 200; i++) {
+                em.persist(new Member("slow-query-" + i, i));
+            }
+        });
+        try {
+            QMember a = new QMember("a");
+            QMember b = new QMember("b");
+            QMember c = new QMember("c");
+            QMember d = new QMember("d");
+            long start = System.nanoTime();
+            try (QueryDeadline.Scope ignored = QueryDeadline.start(1000)) {
+                // 200^4 행을 훑는 쿼리
+                assertThatThrownBy(() -> new TimeLimitedJPAQueryFactory(em)
+                        .select(a.count())
+                        .from(a, b, c, d)
+                        .where(a.username.startsWith("slow-query-"),
+                                a.age.add(b.age).add(c.age).add(d.age).eq(-1))
+                        .fetchOne())
+                        .isInstanceOf(QueryTimeoutException.class);
+            }
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000);
+        } finally {
+            tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.username like 'slow-query-%'").executeUpdate());
+        }
+    }
+
+    @Test
+    public void expiredDeadlineSkipsQuery() throws InterruptedException {
+        try (QueryDeadline.Scope ignored = QueryDeadline.start(1)) {
+            Thread.sleep(5);
+            assertThatThrownBy(() -> new TimeLimitedJPAQueryFactory(em).selectFrom(QMember.member).fetch())
+                    .isInstanceOf(QueryTimeoutException.class);
+        }
+        assertThat(QueryDeadline.remainingMillis()).isEqualTo(-1);
+    }
+
+    @Test
+    public void cancelRunningQueryFromAnotherThread() throws Exception {
+        SearchCancellation cancellation = new SearchCancellation(emf, meterRegistry);
+        CompletableFuture<Object> search = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cancellation.run(() -> em.createNativeQuery(SLOW_SQL).getSingleResult());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(500);
+        long start = System.nanoTime();
+        cancellation.cancel("test");
+
+        assertThatThrownBy(() -> search.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(java.sql.SQLException.class)
+                .hasStackTraceContaining(QueryTimeoutException.class.getName());
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+        assertThat(meterRegistry.counter("member.search.cancelled", "reason", "test").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void requestTimeoutCancelsRunningQuery() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        double before = meterRegistry.counter("member.search.cancelled", "reason", "timeout").count();
+        asyncManager.startCallableProcessing(cancellableSearch.submit(() -> {
+            try {
+                return em.createNativeQuery(SLOW_SQL).getSingleResult();
+            } finally {
+                finished.complete(null);
+            }
+        }));
+
+        Thread.sleep(500);
+        // 컨테이너가 비동기 요청 시간 초과를 알린다.
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        // 쿼리가 취소되어 작업 스레드가 바로 끝난다.
+        finished.get(2, TimeUnit.SECONDS);
+        assertThat(meterRegistry.counter("member.search.cancelled", "reason", "timeout").count()).isEqualTo(before + 1);
+        assertThat(asyncManager.getConcurrentResult()).isInstanceOf(ResponseStatusException.class);
+    }
+}
@@ -0,0 +1,149 @@
+package study.querydsl.wire;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberWireFormatTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberStreamService memberStreamService;
+
+    @Test
+    public void readsBlocksAndNulls() throws IOException {
+        List<MemberTeamDto> rows = new ArrayList<>();
+        for (int i = 0; i < MemberWireFormat.BLOCK_ROWS * 2 + 10; i++) {
+            boolean noTeam = i % 7 == 0;
+            rows.add(new MemberTeamDto(
+                    // id 가 줄어드는 경우도 섞는다.
+                    i % 5 == 0 ? 1_000_000L - i : i * 3L,
+                    i % 11 == 0 ? null : "회원" + i,
+                    i % 3 == 0 ? -i : i,
+                    noTeam ? null : (long) (i % 13),
+                    noTeam ? null : "팀" + (i % 13)));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemberBlockWriter writer = new MemberBlockWriter(out)) {
+            for (MemberTeamDto row : rows) {
+                writer.write(row);
+            }
+        }
+
+        assertThat(MemberBlockReader.readAll(new ByteArrayInputStream(out.toByteArray()))).isEqualTo(rows);
+    }
+
+    @Test
+    public void readsNewNamesAfterDictionaryFull() throws IOException {
+        List<MemberTeamDto> rows = new ArrayList<>();
+        for (int i = 0; i < MemberWireFormat.MAX_DICTIONARY + 100; i++) {
+            rows.add(new MemberTeamDto((long) i, "m", 1, (long) i, "team" + i));
+        }
+        // 사전에 들어간 이름과 못 들어간 이름을 다시 한 번씩
+        rows.add(new MemberTeamDto(-1L, "m", 1, 0L, "team0"));
+        rows.add(new MemberTeamDto(-2L, "m", 1, 1L, "team" + (MemberWireFormat.MAX_DICTIONARY + 1)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemberBlockWriter writer = new MemberBlockWriter(out)) {
+            for (MemberTeamDto row : rows) {
+                writer.write(row);
+            }
+        }
+
+        assertThat(MemberBlockReader.readAll(new ByteArrayInputStream(out.toByteArray()))).isEqualTo(rows);
+    }
+
+    @Test
+    public void missingEndMarkerIsTruncated() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberBlockWriter writer = new MemberBlockWriter(out);
+        for (int i = 0; i < MemberWireFormat.BLOCK_ROWS; i++) {
+            writer.write(new MemberTeamDto((long) i, "member" + i, i, null, null));
+        }
+        byte[] truncated = out.toByteArray();
+
+        assertThatThrownBy(() -> MemberBlockReader.readAll(new ByteArrayInputStream(truncated)))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    public void cursorResultMatchesSearch() throws IOException {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 50; i++) {
+            em.persist(new Member("member" + i, i, i % 10 == 0 ? null : (i % 2 == 0 ? teamA : teamB)));
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = memberStreamService.writeBlocks(condition, out);
+
+        List<MemberTeamDto> expected = memberRepository.search(condition);
+        expected.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+        assertThat(written).isEqualTo(40);
+        assertThat(MemberBlockReader.readAll(new ByteArrayInputStream(out.toByteArray()))).isEqualTo(expected);
+    }
+
+    @Test
+    public void acceptHeaderSelectsFormat() throws Exception {
+        MvcResult async = mockMvc.perform(get("/v1/members").param("ageGoe", "200")
+                        .accept(MemberWireFormat.MEDIA_TYPE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MemberWireFormat.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(Arrays.copyOf(body, 4)).isEqualTo(MemberWireFormat.MAGIC);
+        assertThat(MemberBlockReader.readAll(new ByteArrayInputStream(body))).isEmpty();
+
+        MvcResult json = mockMvc.perform(get("/v1/members").param("ageGoe", "200"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(json))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}